@@ -0,0 +1,3 @@
+-- schemas app_1, app_2, ... used by test shards (-PshardIndex > 0) are created on demand by the app user
+GRANT ALL PRIVILEGES ON `app\_%`.* TO 'app'@'%';
+FLUSH PRIVILEGES;
@@ -0,0 +1,51 @@
+package ru.netology.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import ru.netology.data.DataHelper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DataHelperBenchmark {
+
+    @Benchmark
+    public DataHelper.CardMonthAndYear validMonthAndYear() {
+        return DataHelper.getValidMonthAndYear();
+    }
+
+    @Benchmark
+    public String validCardHolderName() {
+        return DataHelper.getValidCardHolderName();
+    }
+
+    @Benchmark
+    public String randomCardNumber() {
+        return DataHelper.getRandomCardNumber();
+    }
+
+    @Benchmark
+    public DataHelper.CardInfo generatedCardInfo() {
+        var monthAndYear = DataHelper.getValidMonthAndYear();
+        return new DataHelper.CardInfo(DataHelper.approvedCardNumber(), monthAndYear.getCardMonth(),
+                monthAndYear.getCardYear(), DataHelper.getValidCardHolderName(), DataHelper.getRandomCardCode());
+    }
+
+    @Benchmark
+    public DataHelper.CardInfo pooledCardInfo() {
+        return DataHelper.getApprovedCard();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public DataHelper.CardInfo pooledCardInfoContended() {
+        return DataHelper.getApprovedCard();
+    }
+}
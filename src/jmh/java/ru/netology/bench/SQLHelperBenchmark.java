@@ -0,0 +1,78 @@
+package ru.netology.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.netology.data.PurchaseWindow;
+import ru.netology.data.SQLHelper;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SQLHelperBenchmark {
+    private static final String URL = "jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private PurchaseWindow lastPurchase;
+    private String lastBankId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        System.setProperty("spring.datasource.url", URL);
+        System.setProperty("spring.datasource.username", "sa");
+        System.setProperty("spring.datasource.password", "");
+        var now = Instant.now();
+        SQLHelper.cleanDatabase();
+        try (var conn = DriverManager.getConnection(URL, "sa", "");
+             var credit = conn.prepareStatement("INSERT INTO credit_request_entity VALUES (?, ?, ?, ?)");
+             var order = conn.prepareStatement("INSERT INTO order_entity VALUES (?, ?, NULL, ?)")) {
+            for (int i = rows - 1; i >= 0; i--) {
+                var bankId = UUID.randomUUID().toString();
+                var created = Timestamp.from(now.minusSeconds(i * 10L));
+                credit.setString(1, UUID.randomUUID().toString());
+                credit.setString(2, bankId);
+                credit.setTimestamp(3, created);
+                credit.setString(4, i % 2 == 0 ? "APPROVED" : "DECLINED");
+                credit.addBatch();
+                order.setString(1, UUID.randomUUID().toString());
+                order.setTimestamp(2, created);
+                order.setString(3, bankId);
+                order.addBatch();
+                lastBankId = bankId;
+            }
+            credit.executeBatch();
+            order.executeBatch();
+        }
+        lastPurchase = new PurchaseWindow(now.minusMillis(1), now.plusMillis(1));
+    }
+
+    @Benchmark
+    public SQLHelper.SQLCreditRequestEntity latestCreditRow() {
+        return SQLHelper.getInfoFromCreditPayment();
+    }
+
+    @Benchmark
+    public SQLHelper.SQLCreditOrder creditWithOrderByWindow() {
+        return SQLHelper.getCreditWithOrder(lastPurchase);
+    }
+
+    @Benchmark
+    public SQLHelper.SQLCreditOrder creditWithOrderByBankId() {
+        return SQLHelper.getCreditWithOrderByBankId(lastBankId);
+    }
+}
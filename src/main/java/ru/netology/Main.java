@@ -1,7 +1,58 @@
 package ru.netology;
 
+import ru.netology.data.QueryAdvisor;
+import ru.netology.fuzz.Fuzzer;
+import ru.netology.gate.GateEmulator;
+import ru.netology.load.LoadDriver;
+import ru.netology.load.SoakRunner;
+import ru.netology.proxy.FaultProxy;
+import ru.netology.replay.ScenarioReplay;
+
+import java.util.Arrays;
+
 public class Main {
-    public static void main(String[] args) {
-        System.out.println("Hello world!");
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        var options = Options.parse(Arrays.copyOfRange(args, 1, args.length));
+        switch (args[0]) {
+            case "gate":
+                GateEmulator.run(options);
+                break;
+            case "load":
+                LoadDriver.run(options);
+                break;
+            case "soak":
+                SoakRunner.run(options);
+                break;
+            case "proxy":
+                FaultProxy.run(options);
+                break;
+            case "explain":
+                QueryAdvisor.run(options);
+                break;
+            case "fuzz":
+                Fuzzer.run(options);
+                break;
+            case "replay":
+                ScenarioReplay.run(options);
+                break;
+            default:
+                usage();
+                System.exit(2);
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage: Main <command> [--option value ...]");
+        System.out.println("  gate     local bank gate emulator (--port 9999, --rules gate.properties)");
+        System.out.println("  load     purchase load generator (--url, --rate or --concurrency, --duration, --out)");
+        System.out.println("  soak     steady purchase mix for hours with DB growth samples (--url, --hours 4, --rate 10, --interval 60, --out)");
+        System.out.println("  proxy    fault-injecting proxy in front of the bank gate (--port 9998, --upstream, --faults, --sweep 0,500,1000)");
+        System.out.println("  explain  EXPLAIN ANALYZE of every SQLHelper query with index suggestions (--apply, --out)");
+        System.out.println("  fuzz     card field fuzzer against the purchase API (--url, --cases 10000, --concurrency 64, --seed, --out)");
+        System.out.println("  replay   purchase scenarios from a CSV file with batched DB checks (--scenarios, --mode api|browser, --chunk 200, --concurrency 32, --no-verify, --out)");
     }
-}
\ No newline at end of file
+}
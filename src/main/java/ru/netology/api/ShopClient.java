@@ -0,0 +1,103 @@
+package ru.netology.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import lombok.Value;
+import ru.netology.data.DataHelper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+
+public class ShopClient {
+    private static final Gson GSON = new Gson();
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    public ShopClient(String baseUrl, Duration timeout) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+    }
+
+    public enum Endpoint {
+        PAY("/api/v1/pay"),
+        CREDIT("/api/v1/credit");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    public enum Outcome {
+        APPROVED,
+        DECLINED,
+        VALIDATION,
+        SERVER_ERROR,
+        TRANSPORT_ERROR;
+
+        public static Outcome of(Result result, Throwable error) {
+            if (error != null) {
+                return TRANSPORT_ERROR;
+            }
+            if (result.getStatusCode() == 200) {
+                return "APPROVED".equals(result.getStatus()) ? APPROVED : DECLINED;
+            }
+            return result.getStatusCode() < 500 ? VALIDATION : SERVER_ERROR;
+        }
+    }
+
+    @Value
+    public static class Result {
+        int statusCode;
+        String status;
+    }
+
+    static String body(DataHelper.CardInfo cardInfo) {
+        var body = new LinkedHashMap<String, String>();
+        body.put("number", cardInfo.getNumber());
+        body.put("month", cardInfo.getMonth());
+        body.put("year", cardInfo.getYear());
+        body.put("holder", cardInfo.getHolder());
+        body.put("cvc", cardInfo.getCvcCode());
+        return GSON.toJson(body);
+    }
+
+    public CompletableFuture<Result> purchaseAsync(Endpoint endpoint, DataHelper.CardInfo cardInfo) {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body(cardInfo)))
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> new Result(response.statusCode(), status(response)));
+    }
+
+    public Result purchase(Endpoint endpoint, DataHelper.CardInfo cardInfo) {
+        return purchaseAsync(endpoint, cardInfo).join();
+    }
+
+    private static String status(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        try {
+            var json = GSON.fromJson(response.body(), JsonObject.class);
+            return json == null || !json.has("status") ? null : json.get("status").getAsString();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
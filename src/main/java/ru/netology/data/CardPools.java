@@ -0,0 +1,85 @@
+package ru.netology.data;
+
+import com.github.javafaker.Faker;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CardPools {
+    private final Pool approved;
+    private final Pool declined;
+    private final Pool randomNumber;
+    private final Pool expiredYear;
+    private final Pool farFutureYear;
+
+    private CardPools(Pool approved, Pool declined, Pool randomNumber, Pool expiredYear, Pool farFutureYear) {
+        this.approved = approved;
+        this.declined = declined;
+        this.randomNumber = randomNumber;
+        this.expiredYear = expiredYear;
+        this.farFutureYear = farFutureYear;
+    }
+
+    private static class Pool {
+        private final DataHelper.CardInfo[] cards;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        private Pool(DataHelper.CardInfo[] cards) {
+            this.cards = cards;
+        }
+
+        private DataHelper.CardInfo next() {
+            return cards[Math.floorMod(cursor.getAndIncrement(), cards.length)];
+        }
+    }
+
+    private interface NumberSource {
+        String next(Faker faker);
+    }
+
+    public static CardPools generate(long seed, int size) {
+        return new CardPools(
+                build(faker(seed, 1), size, f -> DataHelper.approvedCardNumber(), 1, 5),
+                build(faker(seed, 2), size, f -> DataHelper.declinedCardNumber(), 1, 5),
+                build(faker(seed, 3), size, f -> f.numerify("#### #### #### ####"), 1, 5),
+                build(faker(seed, 4), size, f -> DataHelper.approvedCardNumber(), -5, 0),
+                build(faker(seed, 5), size, f -> DataHelper.approvedCardNumber(), 6, 50));
+    }
+
+    // every pool gets its own sequence derived from the seed, so it neither depends on the other pools
+    // nor repeats the draws of DataHelper's Faker, which is seeded with the seed itself
+    private static Faker faker(long seed, int pool) {
+        return new Faker(new Locale("en"), new Random(seed * 31 + pool));
+    }
+
+    private static Pool build(Faker faker, int size, NumberSource numbers, int fromYearOffset, int toYearOffset) {
+        var cards = new DataHelper.CardInfo[size];
+        for (int i = 0; i < size; i++) {
+            var monthAndYear = DataHelper.monthAndYear(faker, fromYearOffset, toYearOffset);
+            cards[i] = new DataHelper.CardInfo(numbers.next(faker), monthAndYear.getCardMonth(), monthAndYear.getCardYear(),
+                    DataHelper.holderName(faker), faker.numerify("###"));
+        }
+        return new Pool(cards);
+    }
+
+    public DataHelper.CardInfo nextApproved() {
+        return approved.next();
+    }
+
+    public DataHelper.CardInfo nextDeclined() {
+        return declined.next();
+    }
+
+    public DataHelper.CardInfo nextWithRandomNumber() {
+        return randomNumber.next();
+    }
+
+    public DataHelper.CardInfo nextWithExpiredYear() {
+        return expiredYear.next();
+    }
+
+    public DataHelper.CardInfo nextWithFarFutureYear() {
+        return farFutureYear.next();
+    }
+}
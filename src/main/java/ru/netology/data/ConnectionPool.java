@@ -0,0 +1,75 @@
+package ru.netology.data;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.SneakyThrows;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+class ConnectionPool {
+    static final PoolMetrics METRICS = new PoolMetrics();
+
+    private ConnectionPool() {
+    }
+
+    private static class Holder {
+        private static final HikariDataSource DATA_SOURCE = create();
+    }
+
+    static DataSource dataSource() {
+        return Holder.DATA_SOURCE;
+    }
+
+    static boolean isMySql() {
+        return Holder.DATA_SOURCE.getJdbcUrl().startsWith("jdbc:mysql:");
+    }
+
+    private static HikariDataSource create() {
+        var url = System.getProperty("spring.datasource.url");
+        var config = new HikariConfig();
+        config.setPoolName("sql-helper");
+        config.setJdbcUrl(url);
+        config.setUsername(System.getProperty("spring.datasource.username"));
+        config.setPassword(System.getProperty("spring.datasource.password"));
+        config.setMaximumPoolSize(Integer.getInteger("spring.datasource.pool.max-size", 4));
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(Long.getLong("spring.datasource.pool.connection-timeout", 10_000L));
+        config.setMetricsTrackerFactory(METRICS);
+        if (url.startsWith("jdbc:mysql:")) {
+            // server-side prepared statements, cached per connection by Connector/J
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        }
+        var dataSource = new HikariDataSource(config);
+        if (url.startsWith("jdbc:h2:")) {
+            createSchema(dataSource);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(dataSource::close));
+        return dataSource;
+    }
+
+    // the shop creates its own tables in MySQL; an embedded database starts empty and gets them from db/schema.sql
+    @SneakyThrows
+    private static void createSchema(DataSource dataSource) {
+        String script;
+        try (InputStream in = ConnectionPool.class.getResourceAsStream("/db/schema.sql")) {
+            if (in == null) {
+                throw new IOException("db/schema.sql is not on the classpath");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (var connection = dataSource.getConnection();
+             var statement = connection.createStatement()) {
+            for (var sql : script.split(";")) {
+                if (!sql.isBlank()) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+}
@@ -2,17 +2,22 @@ package ru.netology.data;
 
 import com.github.javafaker.Faker;
 import lombok.Value;
+import lombok.With;
 
 import java.time.LocalDate;
 import java.util.Locale;
+import java.util.Random;
 
 public class DataHelper {
-    private static final Faker FAKER = new Faker(new Locale("en"));
+    private static final long SEED = Long.getLong("data.seed", System.nanoTime());
+    private static final int POOL_SIZE = Integer.getInteger("data.pool-size", 1024);
+    private static final Faker FAKER = new Faker(new Locale("en"), new Random(SEED));
 
     private DataHelper() {
     }
 
     @Value
+    @With
     public static class CardInfo {
         String number;
         String month;
@@ -43,23 +48,23 @@ public class DataHelper {
         String cardYear;
     }
 
-    public static CardMonthAndYear getValidMonthAndYear() {
-        var currentDate = LocalDate.now();
-        var randomMonth = String.format("%02d", FAKER.number().numberBetween(1, 12));
-        var randomYear = String.format("%02d", Faker.instance().number().numberBetween(currentDate.getYear() + 1, currentDate.getYear() + 5)).substring(2);
+    static CardMonthAndYear monthAndYear(Faker faker, int fromYearOffset, int toYearOffset) {
+        var currentYear = LocalDate.now().getYear();
+        var randomMonth = String.format("%02d", faker.number().numberBetween(1, 13));
+        var randomYear = String.format("%02d", faker.number().numberBetween(currentYear + fromYearOffset, currentYear + toYearOffset)).substring(2);
         return new CardMonthAndYear(randomMonth, randomYear);
     }
+
+    public static CardMonthAndYear getValidMonthAndYear() {
+        return monthAndYear(FAKER, 1, 5);
+    }
+
     public static CardMonthAndYear getInvalidCardWithFutureYears() {
-        var currentDate = LocalDate.now();
-        var randomMonth = String.format("%02d", FAKER.number().numberBetween(1, 12));
-        var randomYear = String.format("%02d", Faker.instance().number().numberBetween(currentDate.getYear() + 6, currentDate.getYear() + 50)).substring(2);
-        return new CardMonthAndYear(randomMonth, randomYear);
+        return monthAndYear(FAKER, 6, 50);
     }
-    public static CardMonthAndYear getInvalidCardWithPreviousYears () {
-        var currentDate = LocalDate.now();
-        var randomMonth = String.format("%02d", FAKER.number().numberBetween(1, 12));
-        var randomYear = String.format("%02d", Faker.instance().number().numberBetween(currentDate.getYear() - 1, currentDate.getYear() - 5)).substring(2);
-        return new CardMonthAndYear(randomMonth, randomYear);
+
+    public static CardMonthAndYear getInvalidCardWithPreviousYears() {
+        return monthAndYear(FAKER, -5, 0);
     }
 
     public static CardMonthAndYear getCurrentMonthAndYear() {
@@ -69,12 +74,16 @@ public class DataHelper {
         return new CardMonthAndYear(formattedMonth, formattedYear);
     }
 
-    public static String getValidCardHolderName() {
-        var firstName = FAKER.name().firstName();
-        var lastName = FAKER.name().lastName();
+    static String holderName(Faker faker) {
+        var firstName = faker.name().firstName();
+        var lastName = faker.name().lastName();
         return firstName + " " + lastName;
     }
 
+    public static String getValidCardHolderName() {
+        return holderName(FAKER);
+    }
+
     public static String getInvalidCardHolderNameNumber() {
         return "12345";
     }
@@ -91,4 +100,31 @@ public class DataHelper {
         return FAKER.numerify("##");
     }
 
+    private static class Pools {
+        private static final CardPools INSTANCE = CardPools.generate(SEED, POOL_SIZE);
+    }
+
+    public static long getSeed() {
+        return SEED;
+    }
+
+    public static CardInfo getApprovedCard() {
+        return Pools.INSTANCE.nextApproved();
+    }
+
+    public static CardInfo getDeclinedCard() {
+        return Pools.INSTANCE.nextDeclined();
+    }
+
+    public static CardInfo getCardWithRandomNumber() {
+        return Pools.INSTANCE.nextWithRandomNumber();
+    }
+
+    public static CardInfo getCardWithExpiredYear() {
+        return Pools.INSTANCE.nextWithExpiredYear();
+    }
+
+    public static CardInfo getCardWithFarFutureYear() {
+        return Pools.INSTANCE.nextWithFarFutureYear();
+    }
 }
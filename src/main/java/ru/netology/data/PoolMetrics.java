@@ -0,0 +1,69 @@
+package ru.netology.data;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import lombok.Value;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PoolMetrics implements MetricsTrackerFactory {
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final LongAccumulator maxBorrowNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                borrowCount.increment();
+                borrowNanos.add(elapsedAcquiredNanos);
+                maxBorrowNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    @Value
+    public static class Snapshot {
+        long borrows;
+        double avgBorrowMillis;
+        double maxBorrowMillis;
+        long timeouts;
+        int active;
+        int idle;
+        int total;
+        int pending;
+
+        @Override
+        public String toString() {
+            return String.format("borrows=%d, avgBorrow=%.3f ms, maxBorrow=%.3f ms, timeouts=%d, active=%d, idle=%d, total=%d, pending=%d",
+                    borrows, avgBorrowMillis, maxBorrowMillis, timeouts, active, idle, total, pending);
+        }
+    }
+
+    public Snapshot snapshot() {
+        var count = borrowCount.sum();
+        var avgNanos = count == 0 ? 0 : (double) borrowNanos.sum() / count;
+        var stats = poolStats;
+        return new Snapshot(
+                count,
+                avgNanos / TimeUnit.MILLISECONDS.toNanos(1),
+                (double) maxBorrowNanos.get() / TimeUnit.MILLISECONDS.toNanos(1),
+                timeouts.sum(),
+                stats == null ? 0 : stats.getActiveConnections(),
+                stats == null ? 0 : stats.getIdleConnections(),
+                stats == null ? 0 : stats.getTotalConnections(),
+                stats == null ? 0 : stats.getPendingThreads());
+    }
+}
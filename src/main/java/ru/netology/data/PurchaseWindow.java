@@ -0,0 +1,31 @@
+package ru.netology.data;
+
+import lombok.Value;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+@Value
+public class PurchaseWindow {
+    private static final Duration CLOCK_SKEW = Duration.ofMillis(Long.getLong("spring.datasource.clock-skew-ms", 1000L));
+
+    Instant from;
+    Instant to;
+
+    public static PurchaseWindow open() {
+        return new PurchaseWindow(Instant.now(), null);
+    }
+
+    public PurchaseWindow close() {
+        return new PurchaseWindow(from, Instant.now());
+    }
+
+    Timestamp lowerBound() {
+        return Timestamp.from(from.minus(CLOCK_SKEW));
+    }
+
+    Timestamp upperBound() {
+        return Timestamp.from((to == null ? Instant.now() : to).plus(CLOCK_SKEW));
+    }
+}
@@ -0,0 +1,264 @@
+package ru.netology.data;
+
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.apache.commons.dbutils.QueryRunner;
+import ru.netology.Options;
+import ru.netology.metrics.JsonReport;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class QueryAdvisor {
+    private static final Pattern TABLE_ALIAS = Pattern.compile("(?i)\\b(?:FROM|JOIN)\\s+(\\w+)(?:\\s+(?!ON\\b|WHERE\\b|ORDER\\b|LEFT\\b|JOIN\\b|LIMIT\\b)(\\w+))?");
+    private static final Pattern JOINED_TABLE = Pattern.compile("(?i)\\bJOIN\\s+(\\w+)");
+    private static final Pattern QUALIFIED_COLUMN = Pattern.compile("\\b(\\w+)\\.(\\w+)\\b");
+    private static final Pattern PLAIN_COLUMN = Pattern.compile("(?i)(?:WHERE|AND|BY)\\s+(\\w+)\\b");
+    private static final Pattern MYSQL_SCAN = Pattern.compile("Table scan on (\\w+)");
+    private static final Pattern MYSQL_ACCESS = Pattern.compile(
+            "(?:Table scan|Index lookup|Index range scan|Index scan|Single-row index lookup|Covering index).*?actual time=[\\d.]+\\.\\.[\\d.]+ rows=([\\d.]+) loops=(\\d+)");
+    private static final Pattern MYSQL_TOTAL = Pattern.compile("actual time=[\\d.]+\\.\\.([\\d.]+)");
+    private static final Pattern H2_SCAN = Pattern.compile("/\\*\\s*(?:\\w+\\.)?(\\w+)\\.tableScan\\s*\\*/");
+    private static final Pattern H2_ROWS = Pattern.compile("/\\*\\s*scanCount:\\s*(\\d+)\\s*\\*/");
+
+    private static volatile Map<String, Issued> captured;
+
+    private QueryAdvisor() {
+    }
+
+    @Value
+    static class Issued {
+        String code;
+        Object[] params;
+    }
+
+    @Value
+    public static class Plan {
+        double timeMs;
+        long rowsExamined;
+        List<String> fullScans;
+        String plan;
+    }
+
+    @Value
+    public static class QueryReport {
+        String name;
+        String code;
+        Plan before;
+        List<String> suggestedIndexes;
+        Plan after;
+    }
+
+    @Value
+    public static class Report {
+        String at;
+        List<SQLHelper.TableStats> tables;
+        List<QueryReport> queries;
+        // DDL that was suggested but failed, with the database message
+        Map<String, String> skippedIndexes;
+    }
+
+    @Value
+    public static class HistoryLine {
+        String at;
+        Map<String, Long> tableRows;
+        Map<String, Plan> plans;
+    }
+
+    static void capture(String name, String code, Object[] params) {
+        var target = captured;
+        if (target != null) {
+            target.putIfAbsent(name, new Issued(code, params.clone()));
+        }
+    }
+
+    // every public lookup is called once with arguments taken from the newest rows, so the captured
+    // statements are exactly what SQLHelper sends to the database
+    static Map<String, Issued> captureQueries() {
+        // insertion order, so plans.json and the history list the queries the same way on every run
+        Map<String, Issued> target = Collections.synchronizedMap(new LinkedHashMap<>());
+        captured = target;
+        try {
+            var window = new PurchaseWindow(Instant.now().minus(Duration.ofHours(1)), Instant.now());
+            var credit = SQLHelper.getInfoFromCreditPayment();
+            var payment = SQLHelper.getInfoFromDebitPayment();
+            SQLHelper.getInfoFromOrder();
+            SQLHelper.getCreditWithOrder(window);
+            SQLHelper.getPaymentWithOrder(window);
+            SQLHelper.getCreditWithOrderById(credit == null ? "" : credit.getId());
+            SQLHelper.getCreditWithOrderByBankId(credit == null ? "" : credit.getBank_id());
+            SQLHelper.getPaymentWithOrderById(payment == null ? "" : payment.getId());
+            SQLHelper.getPaymentWithOrderByTransactionId(payment == null ? "" : payment.getTransaction_id());
+            SQLHelper.countRows(window);
+            SQLHelper.countByStatus(window.getFrom(), window.getTo());
+        } finally {
+            captured = null;
+        }
+        return new LinkedHashMap<>(target);
+    }
+
+    @SneakyThrows
+    static Plan explain(Issued issued) {
+        var mySql = ConnectionPool.isMySql();
+        var started = System.nanoTime();
+        List<String> lines = new QueryRunner(ConnectionPool.dataSource()).query("EXPLAIN ANALYZE " + issued.code, resultSet -> {
+            var result = new ArrayList<String>();
+            while (resultSet.next()) {
+                result.add(resultSet.getString(1));
+            }
+            return result;
+        }, issued.params);
+        var wallMs = (System.nanoTime() - started) / 1e6;
+        var plan = String.join("\n", lines);
+        var aliases = aliases(issued.code);
+        var fullScans = new LinkedHashSet<String>();
+        var scans = (mySql ? MYSQL_SCAN : H2_SCAN).matcher(plan);
+        while (scans.find()) {
+            var name = scans.group(1).toLowerCase(Locale.ROOT);
+            fullScans.add(aliases.getOrDefault(name, name));
+        }
+        long rows = 0;
+        var timeMs = wallMs;
+        if (mySql) {
+            var access = MYSQL_ACCESS.matcher(plan);
+            while (access.find()) {
+                rows += Math.round(Double.parseDouble(access.group(1)) * Long.parseLong(access.group(2)));
+            }
+            var total = MYSQL_TOTAL.matcher(plan);
+            if (total.find()) {
+                timeMs = Double.parseDouble(total.group(1));
+            }
+        } else {
+            var scanned = H2_ROWS.matcher(plan);
+            while (scanned.find()) {
+                rows += Long.parseLong(scanned.group(1));
+            }
+        }
+        return new Plan(timeMs, rows, new ArrayList<>(fullScans), plan);
+    }
+
+    // alias -> table for every FROM/JOIN in the statement; a table is also its own alias
+    static Map<String, String> aliases(String code) {
+        var aliases = new HashMap<String, String>();
+        var matcher = TABLE_ALIAS.matcher(code);
+        while (matcher.find()) {
+            var table = matcher.group(1).toLowerCase(Locale.ROOT);
+            aliases.put(table, table);
+            if (matcher.group(2) != null) {
+                aliases.put(matcher.group(2).toLowerCase(Locale.ROOT), table);
+            }
+        }
+        return aliases;
+    }
+
+    // a scanned table gets an index on every column it is filtered or sorted on; in a join condition only
+    // the joined table's column counts, the driving table is read before the join is evaluated
+    static List<String> suggestIndexes(String code, List<String> fullScans) {
+        var aliases = aliases(code);
+        var upper = code.toUpperCase(Locale.ROOT);
+        var limit = index(upper, " LIMIT ");
+        var filter = Math.min(Math.min(index(upper, " WHERE "), index(upper, " ORDER BY ")), limit);
+        var join = Math.min(index(upper, " ON "), filter);
+        var joined = new LinkedHashSet<String>();
+        var joins = JOINED_TABLE.matcher(code);
+        while (joins.find()) {
+            joined.add(joins.group(1).toLowerCase(Locale.ROOT));
+        }
+        var columns = new LinkedHashMap<String, Set<String>>();
+        collectColumns(code.substring(join, filter), aliases, joined, columns);
+        collectColumns(code.substring(filter, limit), aliases, null, columns);
+        return fullScans.stream()
+                .filter(columns::containsKey)
+                .flatMap(table -> columns.get(table).stream()
+                        .map(column -> "CREATE INDEX idx_" + table + "_" + column + " ON " + table + " (" + column + ")"))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private static void collectColumns(String part, Map<String, String> aliases, Set<String> onlyTables,
+                                       Map<String, Set<String>> columns) {
+        var qualified = QUALIFIED_COLUMN.matcher(part);
+        while (qualified.find()) {
+            var table = aliases.get(qualified.group(1).toLowerCase(Locale.ROOT));
+            if (table != null && (onlyTables == null || onlyTables.contains(table))) {
+                columns.computeIfAbsent(table, key -> new LinkedHashSet<>()).add(qualified.group(2).toLowerCase(Locale.ROOT));
+            }
+        }
+        if (new HashSet<>(aliases.values()).size() == 1) {
+            var table = aliases.values().iterator().next();
+            var plain = PLAIN_COLUMN.matcher(part);
+            while (plain.find()) {
+                columns.computeIfAbsent(table, key -> new LinkedHashSet<>()).add(plain.group(1).toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    private static int index(String text, String token) {
+        var index = text.indexOf(token);
+        return index < 0 ? text.length() : index;
+    }
+
+    // returns the database message when the DDL fails, null when the index was created
+    private static String createIndex(String ddl) {
+        try {
+            new QueryRunner(ConnectionPool.dataSource()).update(ddl);
+            return null;
+        } catch (SQLException e) {
+            // CREATE INDEX itself failed, usually because a previous --apply run already created the index
+            return e.getMessage();
+        }
+    }
+
+    public static Report advise(boolean apply) {
+        var issued = captureQueries();
+        var queries = new ArrayList<QueryReport>();
+        var suggested = new LinkedHashSet<String>();
+        var before = new LinkedHashMap<String, Plan>();
+        issued.forEach((name, statement) -> {
+            var plan = explain(statement);
+            before.put(name, plan);
+            suggested.addAll(suggestIndexes(statement.code, plan.fullScans));
+        });
+        var skippedIndexes = new LinkedHashMap<String, String>();
+        if (apply) {
+            for (var ddl : suggested) {
+                var error = createIndex(ddl);
+                if (error != null) {
+                    skippedIndexes.put(ddl, error);
+                }
+            }
+        }
+        issued.forEach((name, statement) -> queries.add(new QueryReport(name, statement.code, before.get(name),
+                suggestIndexes(statement.code, before.get(name).fullScans), apply ? explain(statement) : null)));
+        return new Report(Instant.now().toString(), SQLHelper.getTableStats(), queries, skippedIndexes);
+    }
+
+    public static void run(Options options) throws IOException {
+        var report = advise(options.has("apply"));
+        var out = Path.of(options.getString("out", "build/explain/plans.json"));
+        System.out.println(JsonReport.write(report, out));
+        var tableRows = new LinkedHashMap<String, Long>();
+        report.tables.forEach(table -> tableRows.put(table.getTable(), table.getRows()));
+        var plans = new LinkedHashMap<String, Plan>();
+        report.queries.forEach(query -> {
+            var plan = query.after == null ? query.before : query.after;
+            plans.put(query.name, new Plan(plan.timeMs, plan.rowsExamined, plan.fullScans, null));
+        });
+        JsonReport.appendLine(new HistoryLine(report.at, tableRows, plans), out.resolveSibling("plans-history.jsonl"));
+    }
+}
@@ -0,0 +1,233 @@
+package ru.netology.data;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.commons.dbutils.handlers.BeanHandler;
+import org.apache.commons.dbutils.handlers.MapListHandler;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+import ru.netology.metrics.StepTimings;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class SQLHelper {
+    static final List<String> TABLES = List.of("payment_entity", "credit_request_entity", "order_entity");
+    private static final String CREDIT_WITH_ORDER =
+            "SELECT c.id, c.bank_id, c.created, c.status, " +
+            "o.id AS order_id, o.created AS order_created, o.credit_id AS order_credit_id, o.payment_id AS order_payment_id " +
+            "FROM credit_request_entity c LEFT JOIN order_entity o ON o.payment_id = c.bank_id ";
+    private static final String PAYMENT_WITH_ORDER =
+            "SELECT p.id, p.amount, p.created, p.status, p.transaction_id, " +
+            "o.id AS order_id, o.created AS order_created, o.credit_id AS order_credit_id, o.payment_id AS order_payment_id " +
+            "FROM payment_entity p LEFT JOIN order_entity o ON o.payment_id = p.transaction_id ";
+
+    private SQLHelper() {
+    }
+
+    @SneakyThrows
+    private static <T> T query(String name, String code, ResultSetHandler<T> handler, Object... params) {
+        QueryAdvisor.capture(name, code, params);
+        var started = System.nanoTime();
+        try {
+            return new QueryRunner(ConnectionPool.dataSource()).query(code, handler, params);
+        } finally {
+            StepTimings.record("sql: " + name, System.nanoTime() - started);
+        }
+    }
+
+    @SneakyThrows
+    public static void cleanDatabase() {
+        var runner = new QueryRunner(ConnectionPool.dataSource());
+        runner.update("DELETE FROM order_entity");
+        runner.update("DELETE FROM payment_entity");
+        runner.update("DELETE FROM credit_request_entity");
+    }
+
+    public static Map<String, Long> countRows(PurchaseWindow window) {
+        var counts = new LinkedHashMap<String, Long>();
+        for (var table : TABLES) {
+            var code = "SELECT COUNT(*) FROM " + table + " WHERE created BETWEEN ? AND ?;";
+            Number count = query("countRows " + table, code, new ScalarHandler<Number>(), window.lowerBound(), window.upperBound());
+            counts.put(table, count.longValue());
+        }
+        return counts;
+    }
+
+    @Value
+    public static class StatusCount {
+        String table;
+        String status;
+        long rows;
+        long withoutOrder;
+    }
+
+    // purchases created in [from, to) grouped by status, with the number of rows that have no order yet;
+    // unlike the PurchaseWindow lookups the bounds are exact, so consecutive ranges split the rows between them
+    public static List<StatusCount> countByStatus(Instant from, Instant to) {
+        var counts = new ArrayList<StatusCount>();
+        var sources = new LinkedHashMap<String, String>();
+        sources.put("credit_request_entity", "FROM credit_request_entity c LEFT JOIN order_entity o ON o.payment_id = c.bank_id ");
+        sources.put("payment_entity", "FROM payment_entity c LEFT JOIN order_entity o ON o.payment_id = c.transaction_id ");
+        sources.forEach((table, join) -> {
+            var code = "SELECT c.status AS status, COUNT(*) AS rows_count, " +
+                    "SUM(CASE WHEN o.id IS NULL THEN 1 ELSE 0 END) AS without_order " + join +
+                    "WHERE c.created >= ? AND c.created < ? GROUP BY c.status;";
+            for (var row : query("countByStatus " + table, code, new MapListHandler(), Timestamp.from(from), Timestamp.from(to))) {
+                counts.add(new StatusCount(table, String.valueOf(row.get("status")),
+                        ((Number) row.get("rows_count")).longValue(), ((Number) row.get("without_order")).longValue()));
+            }
+        });
+        return counts;
+    }
+
+    @Value
+    public static class TableStats {
+        String table;
+        long rows;
+        Long dataBytes;
+        Long indexBytes;
+    }
+
+    // sizes come from information_schema, which only MySQL fills in; the embedded database reports rows only
+    public static List<TableStats> getTableStats() {
+        var sizes = new LinkedHashMap<String, Map<String, Object>>();
+        if (ConnectionPool.isMySql()) {
+            var code = "SELECT table_name AS table_name, data_length AS data_length, index_length AS index_length " +
+                    "FROM information_schema.tables WHERE table_schema = DATABASE();";
+            for (var row : query("getTableStats", code, new MapListHandler())) {
+                sizes.put(String.valueOf(row.get("table_name")).toLowerCase(Locale.ROOT), row);
+            }
+        }
+        var stats = new ArrayList<TableStats>();
+        for (var table : TABLES) {
+            Number rows = query("countRows " + table, "SELECT COUNT(*) FROM " + table + ";", new ScalarHandler<Number>());
+            var size = sizes.get(table);
+            stats.add(new TableStats(table, rows.longValue(),
+                    size == null ? null : ((Number) size.get("data_length")).longValue(),
+                    size == null ? null : ((Number) size.get("index_length")).longValue()));
+        }
+        return stats;
+    }
+
+    public static PoolMetrics.Snapshot getPoolMetrics() {
+        return ConnectionPool.METRICS.snapshot();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class SQLPaymentEntity {
+        private String id;
+        private String amount;
+        private String created;
+        private String status;
+        private String transaction_id;
+    }
+
+    @SneakyThrows
+    public static SQLPaymentEntity getInfoFromDebitPayment() {
+        var code = "SELECT * FROM payment_entity ORDER BY created DESC LIMIT 1;";
+        return query("getInfoFromDebitPayment", code, new BeanHandler<>(SQLPaymentEntity.class));
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class SQLOrderEntity {
+        private String id;
+        private String created;
+        private String credit_id;
+        private String payment_id;
+    }
+
+    @SneakyThrows
+    public static SQLOrderEntity getInfoFromOrder() {
+        var code = "SELECT * FROM order_entity ORDER BY created DESC LIMIT 1;";
+        return query("getInfoFromOrder", code, new BeanHandler<>(SQLOrderEntity.class));
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class SQLCreditRequestEntity {
+        private String id;
+        private String bank_id;
+        private String created;
+        private String status;
+    }
+
+    @SneakyThrows
+    public static SQLCreditRequestEntity getInfoFromCreditPayment() {
+        var code = "SELECT * FROM credit_request_entity ORDER BY created DESC LIMIT 1;";
+        return query("getInfoFromCreditPayment", code, new BeanHandler<>(SQLCreditRequestEntity.class));
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class SQLCreditOrder {
+        private String id;
+        private String bank_id;
+        private String created;
+        private String status;
+        private String order_id;
+        private String order_created;
+        private String order_credit_id;
+        private String order_payment_id;
+    }
+
+    @SneakyThrows
+    public static SQLCreditOrder getCreditWithOrderById(String id) {
+        var code = CREDIT_WITH_ORDER + "WHERE c.id = ?;";
+        return query("getCreditWithOrderById", code, new BeanHandler<>(SQLCreditOrder.class), id);
+    }
+
+    @SneakyThrows
+    public static SQLCreditOrder getCreditWithOrderByBankId(String bankId) {
+        var code = CREDIT_WITH_ORDER + "WHERE c.bank_id = ?;";
+        return query("getCreditWithOrderByBankId", code, new BeanHandler<>(SQLCreditOrder.class), bankId);
+    }
+
+    @SneakyThrows
+    public static SQLCreditOrder getCreditWithOrder(PurchaseWindow window) {
+        var code = CREDIT_WITH_ORDER + "WHERE c.created BETWEEN ? AND ? ORDER BY c.created DESC LIMIT 1;";
+        return query("getCreditWithOrder", code, new BeanHandler<>(SQLCreditOrder.class), window.lowerBound(), window.upperBound());
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class SQLPaymentOrder {
+        private String id;
+        private String amount;
+        private String created;
+        private String status;
+        private String transaction_id;
+        private String order_id;
+        private String order_created;
+        private String order_credit_id;
+        private String order_payment_id;
+    }
+
+    @SneakyThrows
+    public static SQLPaymentOrder getPaymentWithOrderById(String id) {
+        var code = PAYMENT_WITH_ORDER + "WHERE p.id = ?;";
+        return query("getPaymentWithOrderById", code, new BeanHandler<>(SQLPaymentOrder.class), id);
+    }
+
+    @SneakyThrows
+    public static SQLPaymentOrder getPaymentWithOrderByTransactionId(String transactionId) {
+        var code = PAYMENT_WITH_ORDER + "WHERE p.transaction_id = ?;";
+        return query("getPaymentWithOrderByTransactionId", code, new BeanHandler<>(SQLPaymentOrder.class), transactionId);
+    }
+
+    @SneakyThrows
+    public static SQLPaymentOrder getPaymentWithOrder(PurchaseWindow window) {
+        var code = PAYMENT_WITH_ORDER + "WHERE p.created BETWEEN ? AND ? ORDER BY p.created DESC LIMIT 1;";
+        return query("getPaymentWithOrder", code, new BeanHandler<>(SQLPaymentOrder.class), window.lowerBound(), window.upperBound());
+    }
+}
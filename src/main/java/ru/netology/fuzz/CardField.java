@@ -0,0 +1,30 @@
+package ru.netology.fuzz;
+
+import ru.netology.data.DataHelper;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+public enum CardField {
+    NUMBER(DataHelper.CardInfo::getNumber, DataHelper.CardInfo::withNumber),
+    MONTH(DataHelper.CardInfo::getMonth, DataHelper.CardInfo::withMonth),
+    YEAR(DataHelper.CardInfo::getYear, DataHelper.CardInfo::withYear),
+    HOLDER(DataHelper.CardInfo::getHolder, DataHelper.CardInfo::withHolder),
+    CVC(DataHelper.CardInfo::getCvcCode, DataHelper.CardInfo::withCvcCode);
+
+    private final Function<DataHelper.CardInfo, String> getter;
+    private final BiFunction<DataHelper.CardInfo, String, DataHelper.CardInfo> wither;
+
+    CardField(Function<DataHelper.CardInfo, String> getter, BiFunction<DataHelper.CardInfo, String, DataHelper.CardInfo> wither) {
+        this.getter = getter;
+        this.wither = wither;
+    }
+
+    public String get(DataHelper.CardInfo cardInfo) {
+        return getter.apply(cardInfo);
+    }
+
+    public DataHelper.CardInfo with(DataHelper.CardInfo cardInfo, String value) {
+        return wither.apply(cardInfo, value);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.netology.fuzz;
+
+import ru.netology.data.CardPools;
+import ru.netology.data.DataHelper;
+
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+public class CardGrammar {
+    private static final String DIGITS = "0123456789";
+    private static final String LATIN = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String CYRILLIC = "абвгдеёжзийклмнопрстуфхцчшщъыьэюяАБВГДЕЁЖЗИЙКЛМНОПРСТУФХЦЧШЩЪЫЬЭЮЯ";
+    private static final String SPECIAL = "!@#$%^&*()_+=[]{};:'\",.<>/?\\|`~";
+    private static final int BASE_POOL_SIZE = 256;
+
+    private final long seed;
+    private final YearMonth now;
+    private final CardPools pools;
+    private final Map<CardField, List<Function<SplittableRandom, String>>> alternatives = new EnumMap<>(CardField.class);
+
+    public CardGrammar(long seed, YearMonth now) {
+        this.seed = seed;
+        this.now = now;
+        this.pools = CardPools.generate(seed, BASE_POOL_SIZE);
+        alternatives.put(CardField.NUMBER, List.of(
+                random -> DataHelper.approvedCardNumber(),
+                random -> DataHelper.declinedCardNumber(),
+                random -> grouped(digits(random, 16)),
+                random -> grouped(digits(random, 15)),
+                random -> grouped(digits(random, 17)),
+                random -> DataHelper.approvedCardNumber().replace(" ", ""),
+                random -> DataHelper.approvedCardNumber().replace(' ', '-'),
+                random -> " " + DataHelper.approvedCardNumber() + " ",
+                random -> grouped(mixed(random, 16, DIGITS + LATIN)),
+                random -> chars(random, 1 + random.nextInt(24), DIGITS + SPECIAL + " "),
+                random -> ""));
+        alternatives.put(CardField.MONTH, List.of(
+                random -> twoDigits(1 + random.nextInt(12)),
+                random -> "00",
+                random -> twoDigits(13 + random.nextInt(87)),
+                random -> String.valueOf(1 + random.nextInt(9)),
+                random -> digits(random, 3),
+                random -> chars(random, 2, LATIN + CYRILLIC + SPECIAL),
+                random -> " " + (1 + random.nextInt(9)),
+                random -> ""));
+        alternatives.put(CardField.YEAR, List.of(
+                random -> year(now.getYear() + random.nextInt(6)),
+                random -> year(now.getYear() - 1 - random.nextInt(10)),
+                random -> year(now.getYear() + 6 + random.nextInt(40)),
+                random -> String.valueOf(now.getYear() + random.nextInt(6)),
+                random -> digits(random, 1),
+                random -> chars(random, 2, LATIN + CYRILLIC + SPECIAL),
+                random -> ""));
+        alternatives.put(CardField.HOLDER, List.of(
+                random -> pools.nextApproved().getHolder(),
+                random -> word(random, LATIN, 2, 10) + "-" + word(random, LATIN, 2, 10) + " " + word(random, LATIN, 2, 10),
+                random -> word(random, LATIN, 2, 12),
+                random -> word(random, CYRILLIC, 2, 10) + " " + word(random, CYRILLIC, 2, 12),
+                random -> DataHelper.getInvalidCardHolderNameNumber(),
+                random -> DataHelper.getInvalidCardHolderNameSpecSimbol(),
+                random -> word(random, LATIN, 1, 1) + " " + word(random, LATIN, 1, 1),
+                random -> word(random, LATIN, 2, 8) + chars(random, 1, DIGITS + SPECIAL) + " " + word(random, LATIN, 2, 8),
+                random -> word(random, LATIN, 60, 120) + " " + word(random, LATIN, 60, 120),
+                random -> " " + pools.nextApproved().getHolder() + " ",
+                random -> ""));
+        alternatives.put(CardField.CVC, List.of(
+                random -> digits(random, 3),
+                random -> digits(random, 2),
+                random -> digits(random, 4),
+                random -> chars(random, 3, LATIN + SPECIAL),
+                random -> " " + digits(random, 2),
+                random -> ""));
+    }
+
+    // cases are generated from a single thread in index order, so a whole run is reproducible from the seed
+    public DataHelper.CardInfo generate(long index, Set<CardField> mutated) {
+        var random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+        var cardInfo = random.nextBoolean() ? pools.nextApproved() : pools.nextDeclined();
+        var fieldCount = 1 + random.nextInt(random.nextInt(4) == 0 ? CardField.values().length : 2);
+        for (int i = 0; i < fieldCount; i++) {
+            var field = CardField.values()[random.nextInt(CardField.values().length)];
+            var options = alternatives.get(field);
+            cardInfo = field.with(cardInfo, options.get(random.nextInt(options.size())).apply(random));
+            mutated.add(field);
+        }
+        return cardInfo;
+    }
+
+    // the canonical card is valid in every field, so it is what the shrinker replaces fields with
+    public DataHelper.CardInfo canonical(String number) {
+        var validYear = now.plusMonths(1);
+        return new DataHelper.CardInfo(number, twoDigits(validYear.getMonthValue()), year(validYear.getYear()),
+                "Ivan Ivanov", "123");
+    }
+
+    public YearMonth getNow() {
+        return now;
+    }
+
+    private static String grouped(String value) {
+        var result = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            if (i > 0 && i % 4 == 0) {
+                result.append(' ');
+            }
+            result.append(value.charAt(i));
+        }
+        return result.toString();
+    }
+
+    private static String digits(SplittableRandom random, int length) {
+        return chars(random, length, DIGITS);
+    }
+
+    private static String mixed(SplittableRandom random, int length, String alphabet) {
+        var value = new StringBuilder(digits(random, length));
+        value.setCharAt(random.nextInt(length), alphabet.charAt(DIGITS.length() + random.nextInt(alphabet.length() - DIGITS.length())));
+        return value.toString();
+    }
+
+    private static String word(SplittableRandom random, String alphabet, int minLength, int maxLength) {
+        return chars(random, minLength + random.nextInt(maxLength - minLength + 1), alphabet);
+    }
+
+    private static String chars(SplittableRandom random, int length, String alphabet) {
+        var value = new char[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(value);
+    }
+
+    private static String twoDigits(int value) {
+        return String.format("%02d", value);
+    }
+
+    private static String year(int year) {
+        return twoDigits(Math.floorMod(year, 100));
+    }
+}
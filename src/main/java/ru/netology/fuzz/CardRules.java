@@ -0,0 +1,59 @@
+package ru.netology.fuzz;
+
+import ru.netology.api.ShopClient;
+import ru.netology.data.DataHelper;
+
+import java.time.YearMonth;
+import java.util.regex.Pattern;
+
+// field rules from documents/Plan.md, applied to what the purchase API should accept
+public class CardRules {
+    private static final Pattern MONTH = Pattern.compile("0[1-9]|1[0-2]");
+    private static final Pattern YEAR = Pattern.compile("\\d{2}");
+    private static final Pattern HOLDER = Pattern.compile("[A-Za-z]{2,}(?:[ -][A-Za-z]{2,})+");
+    private static final Pattern CVC = Pattern.compile("\\d{3}");
+
+    private CardRules() {
+    }
+
+    public enum Expectation {
+        APPROVED,
+        DECLINED,
+        REJECTED;
+
+        public boolean matches(ShopClient.Outcome outcome) {
+            switch (this) {
+                case APPROVED:
+                    return outcome == ShopClient.Outcome.APPROVED;
+                case DECLINED:
+                    return outcome == ShopClient.Outcome.DECLINED;
+                default:
+                    // a 5xx is not a rejection: the shop crashing on bad input is exactly what the fuzzer looks for
+                    return outcome == ShopClient.Outcome.VALIDATION;
+            }
+        }
+    }
+
+    public static Expectation expect(DataHelper.CardInfo cardInfo, YearMonth now) {
+        if (!isValidExpiry(cardInfo.getMonth(), cardInfo.getYear(), now)
+                || !HOLDER.matcher(cardInfo.getHolder()).matches()
+                || !CVC.matcher(cardInfo.getCvcCode()).matches()) {
+            return Expectation.REJECTED;
+        }
+        if (DataHelper.approvedCardNumber().equals(cardInfo.getNumber())) {
+            return Expectation.APPROVED;
+        }
+        if (DataHelper.declinedCardNumber().equals(cardInfo.getNumber())) {
+            return Expectation.DECLINED;
+        }
+        return Expectation.REJECTED;
+    }
+
+    private static boolean isValidExpiry(String month, String year, YearMonth now) {
+        if (!MONTH.matcher(month).matches() || !YEAR.matcher(year).matches()) {
+            return false;
+        }
+        var expiry = YearMonth.of(2000 + Integer.parseInt(year), Integer.parseInt(month));
+        return !expiry.isBefore(now) && expiry.getYear() <= now.getYear() + 5;
+    }
+}
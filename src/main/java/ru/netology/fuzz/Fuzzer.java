@@ -0,0 +1,178 @@
+package ru.netology.fuzz;
+
+import lombok.Value;
+import ru.netology.Options;
+import ru.netology.api.ShopClient;
+import ru.netology.data.DataHelper;
+import ru.netology.metrics.JsonReport;
+import ru.netology.metrics.LatencyStats;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+public class Fuzzer {
+    private final ShopClient client;
+    private final CardGrammar grammar;
+    private final Settings settings;
+    private final LatencyStats latency = new LatencyStats();
+    private final ConcurrentMap<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Mismatch> mismatches = new ConcurrentHashMap<>();
+    private final LongAdder transportErrors = new LongAdder();
+
+    public Fuzzer(ShopClient client, CardGrammar grammar, Settings settings) {
+        this.client = client;
+        this.grammar = grammar;
+        this.settings = settings;
+    }
+
+    @Value
+    public static class Settings {
+        long cases;
+        int concurrency;
+        int maxFindings;
+        int shrinkBudget;
+
+        public static Settings from(Options options) {
+            return new Settings(
+                    options.getLong("cases", 10_000),
+                    options.getInt("concurrency", 64),
+                    options.getInt("max-findings", 20),
+                    options.getInt("shrink-budget", 200));
+        }
+    }
+
+    @Value
+    public static class Mismatch {
+        ShopClient.Endpoint endpoint;
+        CardRules.Expectation expected;
+        ShopClient.Outcome actual;
+        Set<CardField> mutated;
+        DataHelper.CardInfo card;
+    }
+
+    @Value
+    public static class Finding {
+        String endpoint;
+        String expected;
+        String actual;
+        Set<CardField> mutated;
+        DataHelper.CardInfo original;
+        DataHelper.CardInfo minimal;
+        int shrinkAttempts;
+    }
+
+    @Value
+    public static class Summary {
+        long seed;
+        long cases;
+        int concurrency;
+        double elapsedSeconds;
+        double casesPerSecond;
+        LatencyStats.Summary latency;
+        Map<String, Long> outcomes;
+        long transportErrors;
+        int mismatchClasses;
+        List<Finding> findings;
+    }
+
+    public Summary run(long seed) {
+        var permits = new Semaphore(settings.concurrency);
+        var started = System.nanoTime();
+        for (long index = 0; index < settings.cases; index++) {
+            Set<CardField> mutated = EnumSet.noneOf(CardField.class);
+            var cardInfo = grammar.generate(index, mutated);
+            var endpoint = index % 2 == 0 ? ShopClient.Endpoint.CREDIT : ShopClient.Endpoint.PAY;
+            permits.acquireUninterruptibly();
+            var sent = System.nanoTime();
+            client.purchaseAsync(endpoint, cardInfo).whenComplete((result, error) -> {
+                latency.recordNanos(System.nanoTime() - sent);
+                check(endpoint, cardInfo, mutated, ShopClient.Outcome.of(result, error));
+                permits.release();
+            });
+        }
+        permits.acquireUninterruptibly(settings.concurrency);
+        var elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        var findings = shrinkAll();
+        return new Summary(seed, settings.cases, settings.concurrency, elapsedSeconds, settings.cases / elapsedSeconds,
+                latency.summary(),
+                outcomes.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum(),
+                        (a, b) -> a, TreeMap::new)),
+                transportErrors.sum(), mismatches.size(), findings);
+    }
+
+    private void check(ShopClient.Endpoint endpoint, DataHelper.CardInfo cardInfo, Set<CardField> mutated,
+                       ShopClient.Outcome actual) {
+        if (actual == ShopClient.Outcome.TRANSPORT_ERROR) {
+            transportErrors.increment();
+            return;
+        }
+        var expected = CardRules.expect(cardInfo, grammar.getNow());
+        outcomes.computeIfAbsent(expected + " -> " + actual, key -> new LongAdder()).increment();
+        if (!expected.matches(actual)) {
+            // one reproducer per kind of mismatch is enough, the rest would shrink to the same input
+            mismatches.putIfAbsent(endpoint + " " + expected + " -> " + actual + " " + mutated,
+                    new Mismatch(endpoint, expected, actual, mutated, cardInfo));
+        }
+    }
+
+    // each reproducer is shrunk sequentially against the shop, different reproducers in parallel
+    private List<Finding> shrinkAll() {
+        var executor = Executors.newFixedThreadPool(Math.max(1, Math.min(settings.concurrency, settings.maxFindings)));
+        try {
+            var futures = mismatches.values().stream()
+                    .limit(settings.maxFindings)
+                    .map(mismatch -> CompletableFuture.supplyAsync(() -> shrink(mismatch), executor))
+                    .collect(Collectors.toList());
+            var findings = new ArrayList<Finding>();
+            var seen = ConcurrentHashMap.<DataHelper.CardInfo>newKeySet();
+            for (var future : futures) {
+                var finding = future.join();
+                if (seen.add(finding.getMinimal())) {
+                    findings.add(finding);
+                }
+            }
+            return findings;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Finding shrink(Mismatch mismatch) {
+        var shrinker = new Shrinker(candidate -> {
+            var actual = client.purchaseAsync(mismatch.endpoint, candidate).handle(ShopClient.Outcome::of).join();
+            return actual == mismatch.actual && !CardRules.expect(candidate, grammar.getNow()).matches(actual);
+        }, settings.shrinkBudget);
+        var canonical = grammar.canonical(mismatch.expected == CardRules.Expectation.DECLINED
+                ? DataHelper.declinedCardNumber() : DataHelper.approvedCardNumber());
+        var shrunk = shrinker.shrink(mismatch.card, canonical);
+        return new Finding(mismatch.endpoint.name(), mismatch.expected.name(), mismatch.actual.name(), mismatch.mutated,
+                mismatch.card, shrunk.getCard(), shrunk.getAttempts());
+    }
+
+    public static void run(Options options) throws IOException {
+        var seed = options.getLong("seed", DataHelper.getSeed());
+        var client = new ShopClient(options.getString("url", "http://localhost:8080"),
+                Duration.ofSeconds(options.getLong("timeout", 30)));
+        var fuzzer = new Fuzzer(client, new CardGrammar(seed, YearMonth.now()), Settings.from(options));
+        var summary = fuzzer.run(seed);
+        System.out.println(JsonReport.write(summary, Path.of(options.getString("out", "build/fuzz/summary.json"))));
+        if (!summary.getFindings().isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
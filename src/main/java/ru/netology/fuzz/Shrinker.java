@@ -0,0 +1,74 @@
+package ru.netology.fuzz;
+
+import lombok.Value;
+import ru.netology.data.DataHelper;
+
+import java.util.function.Predicate;
+
+public class Shrinker {
+    private final Predicate<DataHelper.CardInfo> stillFails;
+    private final int budget;
+    private int attempts;
+
+    public Shrinker(Predicate<DataHelper.CardInfo> stillFails, int budget) {
+        this.stillFails = stillFails;
+        this.budget = budget;
+    }
+
+    @Value
+    public static class Shrunk {
+        DataHelper.CardInfo card;
+        int attempts;
+    }
+
+    // first every field that does not matter goes back to its canonical value, then the remaining
+    // ones lose chunks of characters, halving the chunk size until single characters are tried
+    public Shrunk shrink(DataHelper.CardInfo failing, DataHelper.CardInfo canonical) {
+        var current = failing;
+        for (var field : CardField.values()) {
+            if (field.get(current).equals(field.get(canonical))) {
+                continue;
+            }
+            var candidate = field.with(current, field.get(canonical));
+            if (test(candidate)) {
+                current = candidate;
+            }
+        }
+        for (var field : CardField.values()) {
+            if (!field.get(current).equals(field.get(canonical))) {
+                current = shrinkField(current, field);
+            }
+        }
+        return new Shrunk(current, attempts);
+    }
+
+    private DataHelper.CardInfo shrinkField(DataHelper.CardInfo current, CardField field) {
+        var chunk = Math.max(1, field.get(current).length() / 2);
+        while (chunk > 0) {
+            var progressed = false;
+            var value = field.get(current);
+            for (int from = 0; from + chunk <= value.length(); ) {
+                var candidate = field.with(current, value.substring(0, from) + value.substring(from + chunk));
+                if (test(candidate)) {
+                    current = candidate;
+                    value = field.get(current);
+                    progressed = true;
+                } else {
+                    from += chunk;
+                }
+            }
+            if (!progressed) {
+                chunk /= 2;
+            }
+        }
+        return current;
+    }
+
+    private boolean test(DataHelper.CardInfo candidate) {
+        if (attempts >= budget) {
+            return false;
+        }
+        attempts++;
+        return stillFails.test(candidate);
+    }
+}
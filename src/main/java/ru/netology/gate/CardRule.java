@@ -0,0 +1,68 @@
+package ru.netology.gate;
+
+import lombok.Value;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Value
+public class CardRule {
+    String status;
+    long latencyMs;
+    long jitterMs;
+    double errorRate;
+
+    public static CardRule of(String status) {
+        return new CardRule(status, 0, 0, 0);
+    }
+
+    public CardRule withLatency(long latencyMs, long jitterMs) {
+        return new CardRule(status, latencyMs, jitterMs, errorRate);
+    }
+
+    public CardRule withErrorRate(double errorRate) {
+        return new CardRule(status, latencyMs, jitterMs, errorRate);
+    }
+
+    long nextDelayMs() {
+        if (jitterMs == 0) {
+            return latencyMs;
+        }
+        return Math.max(0, latencyMs + ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1));
+    }
+
+    boolean nextIsError() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    static String key(String cardNumber) {
+        return cardNumber.replace(" ", "");
+    }
+
+    /**
+     * Reads rules keyed by the card number without spaces, e.g.
+     * {@code 1111222233334444.status=APPROVED}, {@code 1111222233334444.latency-ms=50}.
+     * Keys prefixed with {@code default.} apply to every card without an override.
+     */
+    public static Map<String, CardRule> fromProperties(Properties properties, Map<String, CardRule> base) {
+        var defaults = new CardRule(null,
+                Long.parseLong(properties.getProperty("default.latency-ms", "0")),
+                Long.parseLong(properties.getProperty("default.jitter-ms", "0")),
+                Double.parseDouble(properties.getProperty("default.error-rate", "0")));
+        var cards = new HashMap<String, String>();
+        base.forEach((number, rule) -> cards.put(key(number), rule.getStatus()));
+        for (var name : properties.stringPropertyNames()) {
+            if (name.endsWith(".status")) {
+                cards.put(name.substring(0, name.length() - ".status".length()), properties.getProperty(name));
+            }
+        }
+        var rules = new HashMap<String, CardRule>();
+        cards.forEach((number, status) -> rules.put(number, new CardRule(status,
+                Long.parseLong(properties.getProperty(number + ".latency-ms", String.valueOf(defaults.latencyMs))),
+                Long.parseLong(properties.getProperty(number + ".jitter-ms", String.valueOf(defaults.jitterMs))),
+                Double.parseDouble(properties.getProperty(number + ".error-rate", String.valueOf(defaults.errorRate))))));
+        return rules;
+    }
+}
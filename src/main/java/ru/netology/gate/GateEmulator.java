@@ -0,0 +1,130 @@
+package ru.netology.gate;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ru.netology.Options;
+import ru.netology.data.DataHelper;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class GateEmulator implements AutoCloseable {
+    private static final Gson GSON = new Gson();
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService delays;
+    private final Map<String, CardRule> rules;
+
+    private GateEmulator(HttpServer server, int threads, Map<String, CardRule> rules) {
+        this.server = server;
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.delays = Executors.newScheduledThreadPool(Math.max(1, threads / 4));
+        this.rules = rules;
+        server.setExecutor(workers);
+        server.createContext("/payment", this::handle);
+        server.createContext("/credit", this::handle);
+    }
+
+    public static Map<String, CardRule> defaultRules() {
+        var rules = new HashMap<String, CardRule>();
+        rules.put(CardRule.key(DataHelper.approvedCardNumber()), CardRule.of("APPROVED"));
+        rules.put(CardRule.key(DataHelper.declinedCardNumber()), CardRule.of("DECLINED"));
+        return rules;
+    }
+
+    public static GateEmulator start(int port) throws IOException {
+        return start(port, defaultRules());
+    }
+
+    public static GateEmulator start(int port, Map<String, CardRule> rules) throws IOException {
+        var threads = Integer.getInteger("gate.threads", Runtime.getRuntime().availableProcessors() * 2);
+        var server = HttpServer.create(new InetSocketAddress(port), 1024);
+        var emulator = new GateEmulator(server, threads, new HashMap<>(rules));
+        server.start();
+        return emulator;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, null);
+            return;
+        }
+        String number;
+        try (var reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            var body = GSON.fromJson(reader, JsonObject.class);
+            number = body == null || !body.has("number") ? null : body.get("number").getAsString();
+        } catch (RuntimeException e) {
+            number = null;
+        }
+        var rule = number == null ? null : rules.get(CardRule.key(number));
+        if (rule == null) {
+            respond(exchange, 400, null);
+            return;
+        }
+        var code = rule.nextIsError() ? 500 : 200;
+        var body = code == 200 ? "{\"status\":\"" + rule.getStatus() + "\"}" : null;
+        var delay = rule.nextDelayMs();
+        if (delay == 0) {
+            respond(exchange, code, body);
+        } else {
+            delays.schedule(() -> {
+                respond(exchange, code, body);
+                return null;
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        try {
+            if (body == null) {
+                exchange.sendResponseHeaders(code, -1);
+                return;
+            }
+            var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(code, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        delays.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public static void run(Options options) throws Exception {
+        var rules = defaultRules();
+        if (options.has("rules")) {
+            var properties = new Properties();
+            try (var reader = new FileReader(options.getString("rules", null), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            rules = CardRule.fromProperties(properties, rules);
+        }
+        var emulator = start(options.getInt("port", 9999), rules);
+        System.out.println("Gate emulator listening on port " + emulator.getPort() + ", cards: " + rules.keySet());
+        Runtime.getRuntime().addShutdownHook(new Thread(emulator::close));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,147 @@
+package ru.netology.load;
+
+import lombok.Value;
+import ru.netology.Options;
+import ru.netology.api.ShopClient;
+import ru.netology.data.DataHelper;
+import ru.netology.metrics.JsonReport;
+import ru.netology.metrics.LatencyStats;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadDriver {
+    private final ShopClient client;
+    private final Settings settings;
+    private final Map<ShopClient.Endpoint, LatencyStats> latency = new EnumMap<>(ShopClient.Endpoint.class);
+    private final Map<ShopClient.Outcome, LongAdder> outcomes = new EnumMap<>(ShopClient.Outcome.class);
+
+    public LoadDriver(ShopClient client, Settings settings) {
+        this.client = client;
+        this.settings = settings;
+        for (var endpoint : ShopClient.Endpoint.values()) {
+            latency.put(endpoint, new LatencyStats());
+        }
+        for (var outcome : ShopClient.Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    @Value
+    public static class Settings {
+        double ratePerSecond;
+        int concurrency;
+        Duration duration;
+        double creditShare;
+        double declinedShare;
+        double invalidShare;
+
+        public static Settings from(Options options) {
+            return new Settings(
+                    options.getDouble("rate", 0),
+                    options.getInt("concurrency", 16),
+                    Duration.ofSeconds(options.getLong("duration", 60)),
+                    options.getDouble("credit-share", 0.5),
+                    options.getDouble("declined-share", 0.3),
+                    options.getDouble("invalid-share", 0.1));
+        }
+    }
+
+    @Value
+    public static class Summary {
+        String mode;
+        double targetRate;
+        int concurrency;
+        double elapsedSeconds;
+        long requests;
+        double throughputPerSecond;
+        Map<String, LatencyStats.Summary> latency;
+        Map<String, Long> outcomes;
+    }
+
+    public Summary run() {
+        var permits = new Semaphore(settings.concurrency);
+        var pacingNanos = settings.ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / settings.ratePerSecond) : 0;
+        var started = System.nanoTime();
+        var deadline = started + settings.duration.toNanos();
+        long sent = 0;
+        while (true) {
+            long intended;
+            if (pacingNanos > 0) {
+                intended = started + sent * pacingNanos;
+                if (intended >= deadline) {
+                    break;
+                }
+                var wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                permits.acquireUninterruptibly();
+            } else {
+                permits.acquireUninterruptibly();
+                intended = System.nanoTime();
+                if (intended >= deadline) {
+                    permits.release();
+                    break;
+                }
+            }
+            fire(intended, permits);
+            sent++;
+        }
+        permits.acquireUninterruptibly(settings.concurrency);
+        return summarize(sent, System.nanoTime() - started);
+    }
+
+    // latency is measured from the intended send time so a stalled shop is not hidden by back-pressure
+    private void fire(long intendedNanos, Semaphore permits) {
+        var random = ThreadLocalRandom.current();
+        var endpoint = random.nextDouble() < settings.creditShare ? ShopClient.Endpoint.CREDIT : ShopClient.Endpoint.PAY;
+        var cardInfo = nextCard(random);
+        client.purchaseAsync(endpoint, cardInfo).whenComplete((result, error) -> {
+            latency.get(endpoint).recordNanos(System.nanoTime() - intendedNanos);
+            outcomes.get(ShopClient.Outcome.of(result, error)).increment();
+            permits.release();
+        });
+    }
+
+    private DataHelper.CardInfo nextCard(ThreadLocalRandom random) {
+        var roll = random.nextDouble();
+        if (roll < settings.invalidShare) {
+            return DataHelper.getCardWithRandomNumber();
+        }
+        return roll < settings.invalidShare + settings.declinedShare ? DataHelper.getDeclinedCard() : DataHelper.getApprovedCard();
+    }
+
+    private Summary summarize(long sent, long elapsedNanos) {
+        var elapsedSeconds = elapsedNanos / 1e9;
+        var latencySummary = new LinkedHashMap<String, LatencyStats.Summary>();
+        latency.forEach((endpoint, stats) -> latencySummary.put(endpoint.name(), stats.summary()));
+        var outcomeCounts = new LinkedHashMap<String, Long>();
+        outcomes.forEach((outcome, count) -> outcomeCounts.put(outcome.name(), count.sum()));
+        return new Summary(
+                settings.ratePerSecond > 0 ? "rate" : "concurrency",
+                settings.ratePerSecond,
+                settings.concurrency,
+                elapsedSeconds,
+                sent,
+                sent / elapsedSeconds,
+                latencySummary,
+                outcomeCounts);
+    }
+
+    public static void run(Options options) throws IOException {
+        var client = new ShopClient(options.getString("url", "http://localhost:8080"),
+                Duration.ofSeconds(options.getLong("timeout", 30)));
+        var summary = new LoadDriver(client, Settings.from(options)).run();
+        System.out.println(JsonReport.write(summary, Path.of(options.getString("out", "build/load/summary.json"))));
+    }
+}
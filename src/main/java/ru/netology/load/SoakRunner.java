@@ -0,0 +1,151 @@
+package ru.netology.load;
+
+import lombok.Value;
+import ru.netology.Options;
+import ru.netology.api.ShopClient;
+import ru.netology.data.PurchaseWindow;
+import ru.netology.data.SQLHelper;
+import ru.netology.metrics.JsonReport;
+import ru.netology.metrics.LatencyStats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class SoakRunner {
+    private static final int BASELINE_SAMPLES = 3;
+
+    private final ShopClient client;
+    private final LoadDriver.Settings interval;
+    private final Duration duration;
+    private final double climbFactor;
+    private final int climbSamples;
+    private final Path out;
+
+    public SoakRunner(ShopClient client, LoadDriver.Settings interval, Duration duration, double climbFactor,
+                      int climbSamples, Path out) {
+        this.client = client;
+        this.interval = interval;
+        this.duration = duration;
+        this.climbFactor = climbFactor;
+        this.climbSamples = climbSamples;
+        this.out = out;
+    }
+
+    @Value
+    public static class Database {
+        List<SQLHelper.TableStats> tables;
+        Map<String, Double> queryMs;
+    }
+
+    @Value
+    public static class Sample {
+        String at;
+        double elapsedSeconds;
+        LoadDriver.Summary load;
+        double p99Ms;
+        Database database;
+    }
+
+    @Value
+    public static class Summary {
+        String startedAt;
+        int samples;
+        double baselineP99Ms;
+        String climbStartedAt;
+        Double climbElapsedSeconds;
+        String timeSeries;
+    }
+
+    // the load runs in back-to-back intervals of the same steady rate; the database of the previous
+    // interval is sampled while the next one is already running, so query times are measured under load
+    public Summary run() throws IOException {
+        Files.deleteIfExists(out);
+        var startedAt = Instant.now();
+        var started = System.nanoTime();
+        var deadline = started + duration.toNanos();
+        var samples = new ArrayList<Sample>();
+        var window = PurchaseWindow.open();
+        var load = new LoadDriver(client, interval).run();
+        while (true) {
+            var finished = window.close();
+            var at = Instant.now().toString();
+            var elapsedSeconds = (System.nanoTime() - started) / 1e9;
+            var database = CompletableFuture.supplyAsync(() -> sampleDatabase(finished));
+            LoadDriver.Summary next = null;
+            if (System.nanoTime() < deadline) {
+                window = PurchaseWindow.open();
+                next = new LoadDriver(client, interval).run();
+            }
+            var p99Ms = load.getLatency().values().stream().mapToDouble(LatencyStats.Summary::getP99Ms).max().orElse(0);
+            var sample = new Sample(at, elapsedSeconds, load, p99Ms, database.join());
+            JsonReport.appendLine(sample, out);
+            samples.add(sample);
+            System.out.printf("%s: %.1f req/s, p99 %.1f ms%n", at, load.getThroughputPerSecond(), p99Ms);
+            if (next == null) {
+                return summarize(startedAt, samples);
+            }
+            load = next;
+        }
+    }
+
+    private static Database sampleDatabase(PurchaseWindow window) {
+        var queryMs = new LinkedHashMap<String, Double>();
+        timed(queryMs, "getCreditWithOrder", () -> SQLHelper.getCreditWithOrder(window));
+        timed(queryMs, "getPaymentWithOrder", () -> SQLHelper.getPaymentWithOrder(window));
+        timed(queryMs, "getInfoFromCreditPayment", SQLHelper::getInfoFromCreditPayment);
+        timed(queryMs, "getInfoFromDebitPayment", SQLHelper::getInfoFromDebitPayment);
+        timed(queryMs, "getInfoFromOrder", SQLHelper::getInfoFromOrder);
+        return new Database(SQLHelper.getTableStats(), queryMs);
+    }
+
+    private static void timed(Map<String, Double> queryMs, String name, Supplier<?> query) {
+        var started = System.nanoTime();
+        query.get();
+        queryMs.put(name, (System.nanoTime() - started) / 1e6);
+    }
+
+    // latency has started to climb at the first of climbSamples consecutive samples whose p99 exceeds
+    // the median p99 of the first samples by climbFactor
+    private Summary summarize(Instant startedAt, List<Sample> samples) {
+        var baseline = samples.stream().limit(BASELINE_SAMPLES).map(Sample::getP99Ms).sorted().collect(Collectors.toList());
+        var baselineP99 = baseline.isEmpty() ? 0 : baseline.get(baseline.size() / 2);
+        Sample climb = null;
+        var streak = 0;
+        for (int i = baseline.size(); i < samples.size() && climb == null; i++) {
+            streak = samples.get(i).getP99Ms() > baselineP99 * climbFactor ? streak + 1 : 0;
+            if (streak == climbSamples) {
+                climb = samples.get(i - climbSamples + 1);
+            }
+        }
+        return new Summary(startedAt.toString(), samples.size(), baselineP99,
+                climb == null ? null : climb.getAt(), climb == null ? null : climb.getElapsedSeconds(), out.toString());
+    }
+
+    public static void run(Options options) throws IOException {
+        var client = new ShopClient(options.getString("url", "http://localhost:8080"),
+                Duration.ofSeconds(options.getLong("timeout", 30)));
+        var defaults = LoadDriver.Settings.from(options);
+        var interval = new LoadDriver.Settings(
+                options.getDouble("rate", 10),
+                defaults.getConcurrency(),
+                Duration.ofSeconds(options.getLong("interval", 60)),
+                defaults.getCreditShare(),
+                defaults.getDeclinedShare(),
+                defaults.getInvalidShare());
+        var out = Path.of(options.getString("out", "build/soak/soak.jsonl"));
+        var runner = new SoakRunner(client, interval, Duration.ofMinutes((long) (options.getDouble("hours", 4) * 60)),
+                options.getDouble("climb-factor", 1.5), options.getInt("climb-samples", 3), out);
+        var summary = runner.run();
+        System.out.println(JsonReport.write(summary, out.resolveSibling("soak-summary.json")));
+    }
+}
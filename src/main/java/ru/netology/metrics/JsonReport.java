@@ -0,0 +1,37 @@
+package ru.netology.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class JsonReport {
+    private static final Gson PRETTY = new GsonBuilder().setPrettyPrinting().serializeSpecialFloatingPointValues().create();
+    private static final Gson COMPACT = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+
+    private JsonReport() {
+    }
+
+    public static String write(Object report, Path out) throws IOException {
+        var json = PRETTY.toJson(report);
+        createParent(out);
+        Files.writeString(out, json, StandardCharsets.UTF_8);
+        return json;
+    }
+
+    public static void appendLine(Object record, Path out) throws IOException {
+        createParent(out);
+        Files.writeString(out, COMPACT.toJson(record) + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void createParent(Path out) throws IOException {
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+    }
+}
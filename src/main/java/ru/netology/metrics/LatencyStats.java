@@ -0,0 +1,42 @@
+package ru.netology.metrics;
+
+import lombok.Value;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyStats {
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+
+    public void recordNanos(long nanos) {
+        histogram.recordValue(Math.min(HIGHEST_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos))));
+    }
+
+    public void reset() {
+        histogram.reset();
+    }
+
+    @Value
+    public static class Summary {
+        long count;
+        double meanMs;
+        double p50Ms;
+        double p99Ms;
+        double p999Ms;
+        double maxMs;
+    }
+
+    public Summary summary() {
+        var copy = histogram.copy();
+        return new Summary(
+                copy.getTotalCount(),
+                copy.getMean() / 1000.0,
+                copy.getValueAtPercentile(50.0) / 1000.0,
+                copy.getValueAtPercentile(99.0) / 1000.0,
+                copy.getValueAtPercentile(99.9) / 1000.0,
+                copy.getMaxValue() / 1000.0);
+    }
+}
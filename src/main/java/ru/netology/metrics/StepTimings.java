@@ -0,0 +1,58 @@
+package ru.netology.metrics;
+
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class StepTimings {
+    private static final ConcurrentMap<String, LatencyStats> TIMINGS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean HOOK_INSTALLED = new AtomicBoolean();
+
+    private StepTimings() {
+    }
+
+    public static void record(String name, long nanos) {
+        if (HOOK_INSTALLED.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(StepTimings::writeReport));
+        }
+        TIMINGS.computeIfAbsent(name, key -> new LatencyStats()).recordNanos(nanos);
+    }
+
+    @Value
+    public static class Report {
+        String finishedAt;
+        Map<String, LatencyStats.Summary> steps;
+    }
+
+    public static Report snapshot() {
+        var steps = new LinkedHashMap<String, LatencyStats.Summary>();
+        TIMINGS.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().summary()))
+                .sorted(Comparator.comparingDouble((Map.Entry<String, LatencyStats.Summary> entry) -> entry.getValue().getP99Ms()).reversed())
+                .forEach(entry -> steps.put(entry.getKey(), entry.getValue()));
+        return new Report(Instant.now().toString(), steps);
+    }
+
+    public static void writeReport() {
+        if (TIMINGS.isEmpty()) {
+            return;
+        }
+        var dir = Path.of(System.getProperty("metrics.dir", "build/metrics"));
+        var report = snapshot();
+        try {
+            JsonReport.write(report, dir.resolve("step-timings.json"));
+            JsonReport.appendLine(report, dir.resolve("step-timings-history.jsonl"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
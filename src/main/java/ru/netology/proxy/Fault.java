@@ -0,0 +1,54 @@
+package ru.netology.proxy;
+
+import lombok.Value;
+import lombok.With;
+
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Value
+@With
+public class Fault {
+    public static final Fault NONE = new Fault(0, 0, 0, 60_000, 0, 0);
+
+    long delayMs;
+    long jitterMs;
+    double timeoutRate;
+    long timeoutMs;
+    double resetRate;
+    long bytesPerSecond;
+
+    long nextDelayMs() {
+        if (jitterMs == 0) {
+            return delayMs;
+        }
+        return Math.max(0, delayMs + ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1));
+    }
+
+    boolean nextIsTimeout() {
+        return timeoutRate > 0 && ThreadLocalRandom.current().nextDouble() < timeoutRate;
+    }
+
+    boolean nextIsReset() {
+        return resetRate > 0 && ThreadLocalRandom.current().nextDouble() < resetRate;
+    }
+
+    /**
+     * Reads faults for one gate endpoint keyed by its name, e.g. {@code credit.delay-ms=500},
+     * {@code payment.reset-rate=0.05}. Keys prefixed with {@code default.} apply to every endpoint
+     * without an override.
+     */
+    public static Fault fromProperties(Properties properties, String endpoint) {
+        return new Fault(
+                Long.parseLong(property(properties, endpoint, "delay-ms", NONE.delayMs)),
+                Long.parseLong(property(properties, endpoint, "jitter-ms", NONE.jitterMs)),
+                Double.parseDouble(property(properties, endpoint, "timeout-rate", NONE.timeoutRate)),
+                Long.parseLong(property(properties, endpoint, "timeout-ms", NONE.timeoutMs)),
+                Double.parseDouble(property(properties, endpoint, "reset-rate", NONE.resetRate)),
+                Long.parseLong(property(properties, endpoint, "bytes-per-second", NONE.bytesPerSecond)));
+    }
+
+    private static String property(Properties properties, String endpoint, String name, Object fallback) {
+        return properties.getProperty(endpoint + "." + name, properties.getProperty("default." + name, String.valueOf(fallback)));
+    }
+}
@@ -0,0 +1,236 @@
+package ru.netology.proxy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Value;
+import ru.netology.Options;
+import ru.netology.api.ShopClient;
+import ru.netology.load.LoadDriver;
+import ru.netology.metrics.JsonReport;
+import ru.netology.metrics.LatencyStats;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+public class FaultProxy implements AutoCloseable {
+    public static final List<String> ENDPOINTS = List.of("credit", "payment");
+    private static final int CHUNKS_PER_SECOND = 10;
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService delays;
+    private final HttpClient upstream;
+    private final String upstreamUrl;
+    private final Map<String, Fault> faults = new ConcurrentHashMap<>();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    private FaultProxy(HttpServer server, int threads, String upstreamUrl, Map<String, Fault> faults) {
+        this.server = server;
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.delays = Executors.newScheduledThreadPool(Math.max(1, threads / 4));
+        this.upstream = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.upstreamUrl = upstreamUrl.endsWith("/") ? upstreamUrl.substring(0, upstreamUrl.length() - 1) : upstreamUrl;
+        this.faults.putAll(faults);
+        server.setExecutor(workers);
+        for (var endpoint : ENDPOINTS) {
+            stats.put(endpoint, new EndpointStats());
+            server.createContext("/" + endpoint, exchange -> handle(endpoint, exchange));
+        }
+    }
+
+    private static class EndpointStats {
+        private final LatencyStats upstreamLatency = new LatencyStats();
+        private final LongAdder forwarded = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder resets = new LongAdder();
+        private final LongAdder upstreamErrors = new LongAdder();
+    }
+
+    @Value
+    public static class Stats {
+        long forwarded;
+        long timeouts;
+        long resets;
+        long upstreamErrors;
+        LatencyStats.Summary upstreamLatency;
+    }
+
+    public static FaultProxy start(int port, String upstreamUrl, Map<String, Fault> faults) throws IOException {
+        var threads = Integer.getInteger("proxy.threads", Runtime.getRuntime().availableProcessors() * 4);
+        var server = HttpServer.create(new InetSocketAddress(port), 1024);
+        var proxy = new FaultProxy(server, threads, upstreamUrl, faults);
+        server.start();
+        return proxy;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public Fault getFault(String endpoint) {
+        return faults.getOrDefault(endpoint, Fault.NONE);
+    }
+
+    public void setFault(String endpoint, Fault fault) {
+        faults.put(endpoint, fault);
+    }
+
+    public Map<String, Stats> stats() {
+        var result = new LinkedHashMap<String, Stats>();
+        for (var endpoint : ENDPOINTS) {
+            var endpointStats = stats.get(endpoint);
+            result.put(endpoint, new Stats(endpointStats.forwarded.sum(), endpointStats.timeouts.sum(),
+                    endpointStats.resets.sum(), endpointStats.upstreamErrors.sum(), endpointStats.upstreamLatency.summary()));
+        }
+        return result;
+    }
+
+    public void resetStats() {
+        stats.values().forEach(endpointStats -> {
+            endpointStats.upstreamLatency.reset();
+            endpointStats.forwarded.reset();
+            endpointStats.timeouts.reset();
+            endpointStats.resets.reset();
+            endpointStats.upstreamErrors.reset();
+        });
+    }
+
+    private void handle(String endpoint, HttpExchange exchange) throws IOException {
+        var fault = getFault(endpoint);
+        var endpointStats = stats.get(endpoint);
+        byte[] body;
+        try (var in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        if (fault.nextIsReset()) {
+            endpointStats.resets.increment();
+            // closing before any response headers drops the connection, the shop sees it as reset by peer
+            exchange.close();
+            return;
+        }
+        if (fault.nextIsTimeout()) {
+            endpointStats.timeouts.increment();
+            delays.schedule(exchange::close, fault.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            return;
+        }
+        var contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        var request = HttpRequest.newBuilder(URI.create(upstreamUrl + exchange.getRequestURI()))
+                .timeout(Duration.ofMillis(Math.max(fault.getTimeoutMs(), 1)))
+                .header("Content-Type", contentType == null ? "application/json" : contentType)
+                .method(exchange.getRequestMethod(), HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        var sent = System.nanoTime();
+        endpointStats.forwarded.increment();
+        upstream.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+            endpointStats.upstreamLatency.recordNanos(System.nanoTime() - sent);
+            if (error != null) {
+                endpointStats.upstreamErrors.increment();
+            }
+            var delay = fault.nextDelayMs();
+            Runnable reply = () -> respond(exchange, response, fault.getBytesPerSecond());
+            if (delay == 0) {
+                workers.execute(reply);
+            } else {
+                delays.schedule(() -> workers.execute(reply), delay, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private static void respond(HttpExchange exchange, HttpResponse<byte[]> response, long bytesPerSecond) {
+        try {
+            if (response == null) {
+                exchange.sendResponseHeaders(502, -1);
+                return;
+            }
+            var bytes = response.body();
+            response.headers().firstValue("Content-Type").ifPresent(value -> exchange.getResponseHeaders().set("Content-Type", value));
+            exchange.sendResponseHeaders(response.statusCode(), bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length == 0) {
+                return;
+            }
+            var out = exchange.getResponseBody();
+            if (bytesPerSecond <= 0) {
+                out.write(bytes);
+                return;
+            }
+            var chunk = (int) Math.max(1, bytesPerSecond / CHUNKS_PER_SECOND);
+            for (int from = 0; from < bytes.length; from += chunk) {
+                out.write(bytes, from, Math.min(chunk, bytes.length - from));
+                out.flush();
+                if (from + chunk < bytes.length) {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(1) / CHUNKS_PER_SECOND);
+                }
+            }
+        } catch (IOException e) {
+            // the shop gave up on the request first
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        delays.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public static void run(Options options) throws Exception {
+        var properties = new Properties();
+        if (options.has("faults")) {
+            try (var reader = new FileReader(options.getString("faults", null), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        var faults = new LinkedHashMap<String, Fault>();
+        ENDPOINTS.forEach(endpoint -> faults.put(endpoint, Fault.fromProperties(properties, endpoint)));
+        var upstreamUrl = options.getString("upstream", "http://localhost:9999");
+        var proxy = start(options.getInt("port", 9998), upstreamUrl, faults);
+        System.out.println("Fault proxy listening on port " + proxy.getPort() + " in front of " + upstreamUrl + ": " + faults);
+        if (!options.has("sweep")) {
+            Runtime.getRuntime().addShutdownHook(new Thread(proxy::close));
+            Thread.currentThread().join();
+            return;
+        }
+        try (proxy) {
+            var delays = Arrays.stream(options.getString("sweep", null).split(","))
+                    .map(String::trim)
+                    .map(Long::parseLong)
+                    .collect(Collectors.toList());
+            var endpoints = Arrays.asList(options.getString("sweep-endpoints", String.join(",", ENDPOINTS)).split(","));
+            var client = new ShopClient(options.getString("url", "http://localhost:8080"),
+                    Duration.ofSeconds(options.getLong("timeout", 30)));
+            var defaults = LoadDriver.Settings.from(options);
+            var settings = new LoadDriver.Settings(options.getDouble("rate", 20), defaults.getConcurrency(),
+                    defaults.getDuration(), defaults.getCreditShare(), defaults.getDeclinedShare(), defaults.getInvalidShare());
+            var sweep = new FaultSweep(proxy, client, settings, endpoints, options.has("db"));
+            var summary = sweep.run(delays, options.getDouble("collapse-ratio", 0.5));
+            System.out.println(JsonReport.write(summary, Path.of(options.getString("out", "build/proxy/sweep.json"))));
+        }
+    }
+}
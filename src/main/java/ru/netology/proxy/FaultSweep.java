@@ -0,0 +1,96 @@
+package ru.netology.proxy;
+
+import lombok.Value;
+import ru.netology.api.ShopClient;
+import ru.netology.data.PurchaseWindow;
+import ru.netology.data.SQLHelper;
+import ru.netology.load.LoadDriver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FaultSweep {
+    // enough permits for every request sent during a default client timeout, so a slow shop never holds back sending
+    private static final int OPEN_MODEL_IN_FLIGHT_SECONDS = 30;
+
+    private final FaultProxy proxy;
+    private final ShopClient client;
+    private final LoadDriver.Settings settings;
+    private final List<String> endpoints;
+    private final boolean countRows;
+
+    // the sweep drives an open model: a fixed arrival rate, independent of how fast the shop answers. With a closed
+    // loop every added gate delay lowers throughput by itself and the sweep would measure the generator's cap
+    public FaultSweep(FaultProxy proxy, ShopClient client, LoadDriver.Settings settings, List<String> endpoints, boolean countRows) {
+        if (settings.getRatePerSecond() <= 0) {
+            throw new IllegalArgumentException("The fault sweep needs an arrival rate, pass --rate");
+        }
+        this.proxy = proxy;
+        this.client = client;
+        this.settings = new LoadDriver.Settings(settings.getRatePerSecond(),
+                Math.max(settings.getConcurrency(), (int) Math.ceil(settings.getRatePerSecond() * OPEN_MODEL_IN_FLIGHT_SECONDS)),
+                settings.getDuration(), settings.getCreditShare(), settings.getDeclinedShare(), settings.getInvalidShare());
+        this.endpoints = endpoints;
+        this.countRows = countRows;
+    }
+
+    @Value
+    public static class Step {
+        long gateDelayMs;
+        double goodputPerSecond;
+        LoadDriver.Summary shop;
+        Map<String, FaultProxy.Stats> gate;
+        Map<String, Long> dbRows;
+    }
+
+    @Value
+    public static class Summary {
+        List<String> endpoints;
+        double collapseRatio;
+        Long collapseDelayMs;
+        List<Step> steps;
+    }
+
+    // goodput: purchases the shop completed with a bank answer per second of offered load; timeouts, 5xx and
+    // transport errors are sent but not served
+    static double goodput(LoadDriver.Summary shop, double durationSeconds) {
+        var outcomes = shop.getOutcomes();
+        var served = outcomes.getOrDefault(ShopClient.Outcome.APPROVED.name(), 0L)
+                + outcomes.getOrDefault(ShopClient.Outcome.DECLINED.name(), 0L);
+        return served / durationSeconds;
+    }
+
+    // each step offers the same arrival rate with a larger gate delay; the shop has collapsed at the first step
+    // whose goodput is below collapseRatio of the goodput measured without added delay
+    public Summary run(List<Long> delaysMs, double collapseRatio) {
+        var steps = new ArrayList<Step>();
+        var base = new HashMap<String, Fault>();
+        endpoints.forEach(endpoint -> base.put(endpoint, proxy.getFault(endpoint)));
+        Long collapseDelayMs = null;
+        double baseline = -1;
+        try {
+            for (var delayMs : delaysMs) {
+                endpoints.forEach(endpoint -> proxy.setFault(endpoint, base.get(endpoint).withDelayMs(delayMs)));
+                proxy.resetStats();
+                var window = PurchaseWindow.open();
+                var shop = new LoadDriver(client, settings).run();
+                window = window.close();
+                var dbRows = countRows ? SQLHelper.countRows(window) : null;
+                var goodput = goodput(shop, settings.getDuration().toMillis() / 1000.0);
+                steps.add(new Step(delayMs, goodput, shop, proxy.stats(), dbRows));
+                System.out.printf("gate delay %d ms: %.1f purchases/s served of %.1f offered%n", delayMs, goodput,
+                        settings.getRatePerSecond());
+                if (baseline < 0) {
+                    baseline = goodput;
+                } else if (collapseDelayMs == null && goodput < baseline * collapseRatio) {
+                    collapseDelayMs = delayMs;
+                }
+            }
+        } finally {
+            base.forEach(proxy::setFault);
+        }
+        return new Summary(endpoints, collapseRatio, collapseDelayMs, steps);
+    }
+}
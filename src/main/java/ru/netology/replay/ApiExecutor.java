@@ -0,0 +1,28 @@
+package ru.netology.replay;
+
+import ru.netology.Options;
+import ru.netology.api.ShopClient;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+public class ApiExecutor implements ScenarioExecutor {
+    private ShopClient client;
+
+    @Override
+    public String mode() {
+        return "api";
+    }
+
+    @Override
+    public void start(Options options) {
+        client = new ShopClient(options.getString("url", "http://localhost:8080"),
+                Duration.ofSeconds(options.getLong("timeout", 30)));
+    }
+
+    @Override
+    public CompletableFuture<Result> execute(Scenario scenario) {
+        return client.purchaseAsync(scenario.getEndpoint(), scenario.getCard())
+                .handle((result, error) -> new Result(ShopClient.Outcome.of(result, error).name(), null));
+    }
+}
@@ -0,0 +1,14 @@
+package ru.netology.replay;
+
+import lombok.Value;
+import ru.netology.api.ShopClient;
+import ru.netology.data.DataHelper;
+
+@Value
+public class Scenario {
+    int line;
+    ShopClient.Endpoint endpoint;
+    DataHelper.CardInfo card;
+    ShopClient.Outcome expectedStatus;
+    String expectedNotification;
+}
@@ -0,0 +1,44 @@
+package ru.netology.replay;
+
+import lombok.Value;
+import ru.netology.Options;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+
+// one way of playing a scenario against the shop; implementations are found with ServiceLoader, so the
+// browser one can live in the test sources next to the page objects it drives
+public interface ScenarioExecutor extends AutoCloseable {
+
+    @Value
+    class Result {
+        // ShopClient.Outcome name, or null when the executor cannot tell (the browser only sees the notification)
+        String status;
+        String notification;
+    }
+
+    String mode();
+
+    void start(Options options);
+
+    // scenarios an executor cannot play are reported as skipped instead of being executed
+    default boolean supports(Scenario scenario) {
+        return true;
+    }
+
+    CompletableFuture<Result> execute(Scenario scenario);
+
+    @Override
+    default void close() {
+    }
+
+    static ScenarioExecutor forMode(String mode) {
+        for (var executor : ServiceLoader.load(ScenarioExecutor.class)) {
+            if (executor.mode().equals(mode)) {
+                return executor;
+            }
+        }
+        throw new IllegalArgumentException("No scenario executor for mode '" + mode + "'"
+                + ("browser".equals(mode) ? ", browser replays run with ./gradlew replayBrowser" : ""));
+    }
+}
@@ -0,0 +1,131 @@
+package ru.netology.replay;
+
+import ru.netology.api.ShopClient;
+import ru.netology.data.DataHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// CSV with a header row: endpoint,number,month,year,holder,cvc,expected_status,expected_notification.
+// endpoint is credit or pay, expected_status is APPROVED, DECLINED or VALIDATION; fields may be quoted.
+// A year written as +N is N years from now, so approved and declined rows do not expire as time passes
+public class ScenarioFile {
+    static final List<String> COLUMNS = List.of("endpoint", "number", "month", "year", "holder", "cvc",
+            "expected_status", "expected_notification");
+    private static final EnumSet<ShopClient.Outcome> EXPECTABLE =
+            EnumSet.of(ShopClient.Outcome.APPROVED, ShopClient.Outcome.DECLINED, ShopClient.Outcome.VALIDATION);
+    private static final Pattern RELATIVE_YEAR = Pattern.compile("\\+(\\d{1,2})");
+
+    private ScenarioFile() {
+    }
+
+    public static List<Scenario> read(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    public static List<Scenario> parse(List<String> lines) {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("Scenario file is empty");
+        }
+        var header = split(lines.get(0), 1);
+        var index = new HashMap<String, Integer>();
+        for (int i = 0; i < header.size(); i++) {
+            index.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (var column : COLUMNS.subList(0, 7)) {
+            if (!index.containsKey(column)) {
+                throw new IllegalArgumentException("Scenario file has no " + column + " column, expected " + COLUMNS);
+            }
+        }
+        var scenarios = new ArrayList<Scenario>();
+        for (int i = 1; i < lines.size(); i++) {
+            if (lines.get(i).isBlank() || lines.get(i).startsWith("#")) {
+                continue;
+            }
+            var lineNumber = i + 1;
+            var fields = split(lines.get(i), lineNumber);
+            var card = new DataHelper.CardInfo(field(fields, index, "number"), field(fields, index, "month"),
+                    year(field(fields, index, "year")), field(fields, index, "holder"), field(fields, index, "cvc"));
+            scenarios.add(new Scenario(lineNumber, endpoint(field(fields, index, "endpoint"), lineNumber), card,
+                    expectedStatus(field(fields, index, "expected_status"), lineNumber),
+                    field(fields, index, "expected_notification")));
+        }
+        return scenarios;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> index, String column) {
+        var i = index.get(column);
+        return i == null || i >= fields.size() ? "" : fields.get(i);
+    }
+
+    private static String year(String value) {
+        var relative = RELATIVE_YEAR.matcher(value.trim());
+        if (!relative.matches()) {
+            return value;
+        }
+        return String.format("%02d", (Year.now().getValue() + Integer.parseInt(relative.group(1))) % 100);
+    }
+
+    private static ShopClient.Endpoint endpoint(String value, int line) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "credit":
+                return ShopClient.Endpoint.CREDIT;
+            case "pay":
+                return ShopClient.Endpoint.PAY;
+            default:
+                throw new IllegalArgumentException("Line " + line + ": unknown endpoint '" + value + "', expected credit or pay");
+        }
+    }
+
+    private static ShopClient.Outcome expectedStatus(String value, int line) {
+        var status = Arrays.stream(ShopClient.Outcome.values())
+                .filter(EXPECTABLE::contains)
+                .filter(outcome -> outcome.name().equalsIgnoreCase(value.trim()))
+                .findFirst();
+        return status.orElseThrow(() -> new IllegalArgumentException(
+                "Line " + line + ": unknown expected_status '" + value + "', expected one of " + EXPECTABLE));
+    }
+
+    // RFC 4180 without line breaks inside fields: commas split unless quoted, "" is a literal quote
+    static List<String> split(String line, int lineNumber) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,256 @@
+package ru.netology.replay;
+
+import lombok.Value;
+import ru.netology.Options;
+import ru.netology.api.ShopClient;
+import ru.netology.data.SQLHelper;
+import ru.netology.metrics.JsonReport;
+import ru.netology.metrics.LatencyStats;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+public class ScenarioReplay {
+    private static final long VERIFY_RETRY_MS = 200;
+
+    private final ScenarioExecutor executor;
+    private final Settings settings;
+    private final LatencyStats latency = new LatencyStats();
+    private final ConcurrentMap<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Failure> failures = new ConcurrentLinkedQueue<>();
+    private final LongAdder failedScenarios = new LongAdder();
+    private final List<ChunkFailure> chunkFailures = new ArrayList<>();
+    private final LongAdder verifyNanos = new LongAdder();
+
+    public ScenarioReplay(ScenarioExecutor executor, Settings settings) {
+        this.executor = executor;
+        this.settings = settings;
+    }
+
+    @Value
+    public static class Settings {
+        int chunkSize;
+        int concurrency;
+        boolean verify;
+        Duration verifyTimeout;
+        Duration clockOffset;
+        int maxFailures;
+
+        public static Settings from(Options options) {
+            return new Settings(
+                    options.getInt("chunk", 200),
+                    options.getInt("concurrency", 32),
+                    !options.has("no-verify"),
+                    Duration.ofMillis(options.getLong("verify-timeout-ms", 5_000)),
+                    Duration.ofMillis(options.getLong("clock-offset-ms", 0)),
+                    options.getInt("max-failures", 50));
+        }
+    }
+
+    @Value
+    public static class Failure {
+        int line;
+        String endpoint;
+        String expectedStatus;
+        String actualStatus;
+        String expectedNotification;
+        String actualNotification;
+    }
+
+    @Value
+    public static class ChunkFailure {
+        int chunk;
+        int firstLine;
+        int lastLine;
+        Map<String, Long> expected;
+        Map<String, Long> actual;
+        // set when the chunk could not be checked at all, e.g. the database query failed
+        String error;
+    }
+
+    @Value
+    public static class Summary {
+        String mode;
+        int scenarios;
+        // not played because the executor does not support them, e.g. pay scenarios in browser mode
+        int skippedScenarios;
+        int chunks;
+        int concurrency;
+        double elapsedSeconds;
+        double scenariosPerSecond;
+        LatencyStats.Summary latency;
+        Map<String, Long> outcomes;
+        long failedScenarios;
+        int failedChunks;
+        double verifySeconds;
+        List<Failure> failures;
+        List<ChunkFailure> chunkFailures;
+
+        public boolean passed() {
+            return failedScenarios == 0 && failedChunks == 0;
+        }
+    }
+
+    // chunks run one after another with up to concurrency scenarios in flight; a chunk is verified against
+    // the database on a separate thread while the next one is already running. The next chunk only starts
+    // once every scenario of the previous one has answered, so each chunk owns the rows created in its range
+    public Summary run(List<Scenario> all) {
+        var scenarios = all.stream().filter(executor::supports).collect(Collectors.toList());
+        var permits = new Semaphore(settings.concurrency);
+        var verifier = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "replay-verifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<Void> verified = CompletableFuture.completedFuture(null);
+        var chunks = 0;
+        var started = System.nanoTime();
+        try {
+            for (int from = 0; from < scenarios.size(); from += settings.chunkSize) {
+                var chunk = scenarios.subList(from, Math.min(from + settings.chunkSize, scenarios.size()));
+                var index = chunks++;
+                var chunkStarted = Instant.now();
+                var pending = new ArrayList<CompletableFuture<?>>(chunk.size());
+                for (var scenario : chunk) {
+                    permits.acquireUninterruptibly();
+                    var sent = System.nanoTime();
+                    pending.add(executor.execute(scenario).whenComplete((result, error) -> {
+                        latency.recordNanos(System.nanoTime() - sent);
+                        check(scenario, result, error);
+                        permits.release();
+                    }));
+                }
+                CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).handle((ignored, error) -> null).join();
+                var chunkFinished = Instant.now();
+                if (settings.verify) {
+                    // a chunk that cannot be verified is recorded by verify, so the chain never stops the later chunks
+                    verified = verified.exceptionally(error -> null)
+                            .thenRunAsync(() -> verify(index, chunk, chunkStarted, chunkFinished), verifier);
+                }
+            }
+            verified.join();
+        } finally {
+            verifier.shutdownNow();
+        }
+        var elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        return new Summary(executor.mode(), scenarios.size(), all.size() - scenarios.size(), chunks, settings.concurrency, elapsedSeconds,
+                scenarios.size() / elapsedSeconds, latency.summary(),
+                outcomes.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum(),
+                        (a, b) -> a, TreeMap::new)),
+                failedScenarios.sum(), chunkFailures.size(), verifyNanos.sum() / 1e9,
+                new ArrayList<>(failures), chunkFailures);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.replaceAll("\\s+", " ").trim();
+    }
+
+    // the status is checked when the executor reports one, the notification when the scenario names one
+    private void check(Scenario scenario, ScenarioExecutor.Result result, Throwable error) {
+        var actualStatus = error != null ? "ERROR" : result.getStatus();
+        var actualNotification = error != null ? String.valueOf(error.getMessage()) : result.getNotification();
+        outcomes.computeIfAbsent(scenario.getExpectedStatus() + " -> " + (actualStatus == null ? "?" : actualStatus),
+                key -> new LongAdder()).increment();
+        var statusMatches = actualStatus == null || actualStatus.equals(scenario.getExpectedStatus().name());
+        var notificationMatches = error == null && (scenario.getExpectedNotification().isBlank() || actualNotification == null
+                || normalize(scenario.getExpectedNotification()).equals(normalize(actualNotification)));
+        if (statusMatches && notificationMatches) {
+            return;
+        }
+        failedScenarios.increment();
+        if (failures.size() < settings.maxFailures) {
+            failures.add(new Failure(scenario.getLine(), scenario.getEndpoint().name(), scenario.getExpectedStatus().name(),
+                    actualStatus, scenario.getExpectedNotification(), actualNotification));
+        }
+    }
+
+    // one grouped query per chunk instead of a lookup per scenario: the rows created in the chunk's range
+    // must add up to the expected statuses, and every approved purchase must have its order
+    private void verify(int index, List<Scenario> chunk, Instant from, Instant to) {
+        var started = System.nanoTime();
+        var expected = expectedRows(chunk);
+        var deadline = started + settings.verifyTimeout.toNanos();
+        Map<String, Long> actual;
+        try {
+            while (true) {
+                actual = actualRows(from.plus(settings.clockOffset), to.plus(settings.clockOffset));
+                if (actual.equals(expected) || System.nanoTime() > deadline) {
+                    break;
+                }
+                // the order row can land a moment after the purchase has answered
+                Thread.sleep(VERIFY_RETRY_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            chunkFailed(index, chunk, expected, Map.of(), String.valueOf(e.getMessage()));
+            return;
+        } finally {
+            verifyNanos.add(System.nanoTime() - started);
+        }
+        if (!actual.equals(expected)) {
+            chunkFailed(index, chunk, expected, actual, null);
+        }
+    }
+
+    private void chunkFailed(int index, List<Scenario> chunk, Map<String, Long> expected, Map<String, Long> actual,
+                             String error) {
+        chunkFailures.add(new ChunkFailure(index, chunk.get(0).getLine(), chunk.get(chunk.size() - 1).getLine(),
+                expected, actual, error));
+    }
+
+    static Map<String, Long> expectedRows(List<Scenario> chunk) {
+        var expected = new TreeMap<String, Long>();
+        for (var scenario : chunk) {
+            if (scenario.getExpectedStatus() == ShopClient.Outcome.VALIDATION) {
+                continue;
+            }
+            var table = scenario.getEndpoint() == ShopClient.Endpoint.CREDIT ? "credit_request_entity" : "payment_entity";
+            expected.merge(table + " " + scenario.getExpectedStatus().name(), 1L, Long::sum);
+        }
+        return expected;
+    }
+
+    private static Map<String, Long> actualRows(Instant from, Instant to) {
+        var actual = new TreeMap<String, Long>();
+        for (var count : SQLHelper.countByStatus(from, to)) {
+            actual.put(count.getTable() + " " + count.getStatus(), count.getRows());
+            if ("APPROVED".equals(count.getStatus()) && count.getWithoutOrder() > 0) {
+                actual.put(count.getTable() + " APPROVED without order", count.getWithoutOrder());
+            }
+        }
+        return actual;
+    }
+
+    public static void run(Options options) throws IOException {
+        if (!options.has("scenarios")) {
+            throw new IllegalArgumentException("--scenarios <file.csv> is required");
+        }
+        var scenarios = ScenarioFile.read(Path.of(options.getString("scenarios", null)));
+        var settings = Settings.from(options);
+        Summary summary;
+        try (var executor = ScenarioExecutor.forMode(options.getString("mode", "api"))) {
+            executor.start(options);
+            summary = new ScenarioReplay(executor, settings).run(scenarios);
+        }
+        System.out.println(JsonReport.write(summary, Path.of(options.getString("out", "build/replay/summary.json"))));
+        if (!summary.passed()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS payment_entity (
+    id             VARCHAR(255) NOT NULL PRIMARY KEY,
+    amount         INT,
+    created        TIMESTAMP(6),
+    status         VARCHAR(255),
+    transaction_id VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS credit_request_entity (
+    id      VARCHAR(255) NOT NULL PRIMARY KEY,
+    bank_id VARCHAR(255),
+    created TIMESTAMP(6),
+    status  VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS order_entity (
+    id         VARCHAR(255) NOT NULL PRIMARY KEY,
+    created    TIMESTAMP(6),
+    credit_id  VARCHAR(255),
+    payment_id VARCHAR(255)
+);
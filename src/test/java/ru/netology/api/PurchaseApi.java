@@ -0,0 +1,72 @@
+package ru.netology.api;
+
+import io.qameta.allure.restassured.AllureRestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import lombok.Value;
+import ru.netology.data.DataHelper;
+
+import static io.restassured.RestAssured.given;
+
+public class PurchaseApi {
+    private static final RequestSpecification REQUEST_SPEC = new RequestSpecBuilder()
+            .setBaseUri(System.getProperty("shop.url", "http://localhost:8080"))
+            .setBasePath("/api/v1")
+            .setContentType(ContentType.JSON)
+            .setAccept(ContentType.JSON)
+            .addFilter(new AllureRestAssured())
+            .build();
+
+    private PurchaseApi() {
+    }
+
+    public enum Endpoint {
+        PAY("/pay"),
+        CREDIT("/credit");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    @Value
+    public static class PurchaseRequest {
+        String number;
+        String month;
+        String year;
+        String holder;
+        String cvc;
+
+        public static PurchaseRequest from(DataHelper.CardInfo cardInfo) {
+            return new PurchaseRequest(cardInfo.getNumber(), cardInfo.getMonth(), cardInfo.getYear(),
+                    cardInfo.getHolder(), cardInfo.getCvcCode());
+        }
+    }
+
+    @Value
+    public static class PurchaseResult {
+        int statusCode;
+        String status;
+    }
+
+    public static PurchaseResult purchase(Endpoint endpoint, DataHelper.CardInfo cardInfo) {
+        var response = given()
+                .spec(REQUEST_SPEC)
+                .body(PurchaseRequest.from(cardInfo))
+                .when()
+                .post(endpoint.path);
+        var status = response.statusCode() == 200 ? response.jsonPath().getString("status") : null;
+        return new PurchaseResult(response.statusCode(), status);
+    }
+
+    public static PurchaseResult pay(DataHelper.CardInfo cardInfo) {
+        return purchase(Endpoint.PAY, cardInfo);
+    }
+
+    public static PurchaseResult credit(DataHelper.CardInfo cardInfo) {
+        return purchase(Endpoint.CREDIT, cardInfo);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.netology.data;
+
+import lombok.SneakyThrows;
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+import ru.netology.metrics.StepTimings;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public class DbCheckpoint {
+    private static final String SNAPSHOT_SUFFIX = "_checkpoint";
+
+    // the shop writes through its own connections, so a transaction on our side cannot roll its rows back
+    public enum Strategy {
+        // every reset empties the tables; the checkpoint itself starts from empty tables
+        TRUNCATE,
+        // rows created after the newest row seen at the checkpoint are deleted
+        DELETE_SINCE,
+        // tables are copied aside at the checkpoint and copied back on every reset
+        SNAPSHOT;
+
+        public static Strategy fromProperty() {
+            return valueOf(System.getProperty("db.reset.strategy", "delete-since").toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final Strategy strategy;
+    private final Map<String, Object> newestRows = new LinkedHashMap<>();
+
+    private DbCheckpoint(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public static DbCheckpoint take(Strategy strategy) {
+        var checkpoint = new DbCheckpoint(strategy);
+        checkpoint.timed("checkpoint", checkpoint::capture);
+        return checkpoint;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public void reset() {
+        timed("reset", () -> {
+            for (var table : SQLHelper.TABLES) {
+                switch (strategy) {
+                    case TRUNCATE:
+                        update("TRUNCATE TABLE " + table);
+                        break;
+                    case DELETE_SINCE:
+                        var newest = newestRows.get(table);
+                        if (newest == null) {
+                            update("DELETE FROM " + table);
+                        } else {
+                            update("DELETE FROM " + table + " WHERE created > ?", newest);
+                        }
+                        break;
+                    case SNAPSHOT:
+                        update("DELETE FROM " + table);
+                        update("INSERT INTO " + table + " SELECT * FROM " + table + SNAPSHOT_SUFFIX);
+                        break;
+                }
+            }
+        });
+    }
+
+    public void release() {
+        if (strategy == Strategy.SNAPSHOT) {
+            timed("release", () -> SQLHelper.TABLES.forEach(table -> update("DROP TABLE IF EXISTS " + table + SNAPSHOT_SUFFIX)));
+        }
+    }
+
+    private void capture() {
+        for (var table : SQLHelper.TABLES) {
+            switch (strategy) {
+                case TRUNCATE:
+                    update("TRUNCATE TABLE " + table);
+                    break;
+                case DELETE_SINCE:
+                    newestRows.put(table, newestRow(table));
+                    break;
+                case SNAPSHOT:
+                    update("DROP TABLE IF EXISTS " + table + SNAPSHOT_SUFFIX);
+                    update("CREATE TABLE " + table + SNAPSHOT_SUFFIX + " AS SELECT * FROM " + table);
+                    break;
+            }
+        }
+    }
+
+    private void timed(String operation, Runnable action) {
+        var started = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            StepTimings.record("db " + operation + ": " + strategy.name().toLowerCase(Locale.ROOT), System.nanoTime() - started);
+        }
+    }
+
+    @SneakyThrows
+    private static Object newestRow(String table) {
+        return new QueryRunner(ConnectionPool.dataSource()).query("SELECT MAX(created) FROM " + table, new ScalarHandler<>());
+    }
+
+    @SneakyThrows
+    private static void update(String code, Object... params) {
+        new QueryRunner(ConnectionPool.dataSource()).update(code, params);
+    }
+}
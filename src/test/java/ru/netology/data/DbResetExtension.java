@@ -0,0 +1,48 @@
+package ru.netology.data;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+// restores the purchase tables to the state they had when the first class using this extension started;
+// such classes must hold ResourceLocks.PURCHASE_ROWS at class level. Checkpoint and reset times are
+// reported to step-timings.json as "db checkpoint: <strategy>" and "db reset: <strategy>"
+public class DbResetExtension implements BeforeAllCallback, AfterEachCallback, AfterAllCallback {
+    private static final String SCOPE = System.getProperty("db.reset.scope", "class");
+
+    private static class Suite implements ExtensionContext.Store.CloseableResource {
+        private final DbCheckpoint checkpoint = DbCheckpoint.take(DbCheckpoint.Strategy.fromProperty());
+
+        @Override
+        public void close() {
+            checkpoint.release();
+        }
+    }
+
+    private static DbCheckpoint checkpoint(ExtensionContext context) {
+        return context.getRoot().getStore(ExtensionContext.Namespace.GLOBAL)
+                .getOrComputeIfAbsent(Suite.class, key -> new Suite(), Suite.class).checkpoint;
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (!"none".equals(SCOPE)) {
+            checkpoint(context);
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        if ("test".equals(SCOPE)) {
+            checkpoint(context).reset();
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        if ("class".equals(SCOPE)) {
+            checkpoint(context).reset();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.netology.data;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class DbVerifier {
+    private static final Duration TIMEOUT = Duration.ofMillis(Long.getLong("db.verify.timeout-ms", 15_000L));
+    private static final long INITIAL_DELAY_MS = 50;
+    private static final long MAX_DELAY_MS = 1_000;
+    private static final Duration SETTLE = Duration.ofMillis(Long.getLong("db.verify.settle-ms", 2_000L));
+    // one thread per pooled connection, so lookups of parallel tests never queue behind each other for a thread
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(
+            Integer.getInteger("spring.datasource.pool.max-size", 4), runnable -> {
+                var thread = new Thread(runnable, "db-verifier");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private DbVerifier() {
+    }
+
+    public static CompletableFuture<SQLHelper.SQLCreditOrder> creditWithOrder(PurchaseWindow window) {
+        return await("credit row in " + window, () -> SQLHelper.getCreditWithOrder(window),
+                row -> row != null && (!"APPROVED".equals(row.getStatus()) || row.getOrder_id() != null));
+    }
+
+    // for a purchase that must not get an order: once the credit row is there the lookup is repeated after
+    // the settle period, so an order row written a moment later is still seen
+    public static CompletableFuture<SQLHelper.SQLCreditOrder> creditWithoutOrder(PurchaseWindow window) {
+        return await("credit row in " + window, () -> SQLHelper.getCreditWithOrder(window), Objects::nonNull)
+                .thenCompose(row -> afterSettle(() -> SQLHelper.getCreditWithOrder(window)));
+    }
+
+    public static CompletableFuture<SQLHelper.SQLPaymentOrder> paymentWithOrder(PurchaseWindow window) {
+        return await("payment row in " + window, () -> SQLHelper.getPaymentWithOrder(window),
+                row -> row != null && (!"APPROVED".equals(row.getStatus()) || row.getOrder_id() != null));
+    }
+
+    // completes with the last row seen once the predicate holds or the timeout runs out, so an incomplete
+    // row surfaces as an assertion on its fields; no row at all fails with an AssertionError naming what was awaited
+    public static <T> CompletableFuture<T> await(String description, Supplier<T> lookup, Predicate<T> complete) {
+        var result = new CompletableFuture<T>();
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        SCHEDULER.execute(() -> attempt(description, lookup, complete, result, deadline, INITIAL_DELAY_MS));
+        return result;
+    }
+
+    // join() wraps the AssertionError of a missing row into a CompletionException, which the report shows
+    // as a broken test instead of a failed one; this rethrows the assertion itself
+    public static <T> T join(CompletableFuture<T> row) {
+        try {
+            return row.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AssertionError) {
+                throw (AssertionError) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static <T> CompletableFuture<T> afterSettle(Supplier<T> lookup) {
+        var result = new CompletableFuture<T>();
+        SCHEDULER.schedule(() -> {
+            try {
+                result.complete(lookup.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, SETTLE.toMillis(), TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    private static <T> void attempt(String description, Supplier<T> lookup, Predicate<T> complete,
+                                    CompletableFuture<T> result, long deadline, long delayMs) {
+        T row;
+        try {
+            row = lookup.get();
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        if (complete.test(row)) {
+            result.complete(row);
+            return;
+        }
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs) > deadline) {
+            if (row == null) {
+                result.completeExceptionally(new AssertionError("No " + description + " after " + TIMEOUT.toSeconds() + " s"));
+            } else {
+                result.complete(row);
+            }
+            return;
+        }
+        SCHEDULER.schedule(() -> attempt(description, lookup, complete, result, deadline, Math.min(delayMs * 2, MAX_DELAY_MS)),
+                delayMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.netology.data;
+
+// names for JUnit @ResourceLock
+public class ResourceLocks {
+    // rows of payment_entity, credit_request_entity and order_entity: held by every class that creates purchases
+    // and then reads them back by time window, or that resets the tables
+    public static final String PURCHASE_ROWS = "purchase-rows";
+
+    private ResourceLocks() {
+    }
+}
@@ -0,0 +1,78 @@
+package ru.netology.page;
+
+import com.codeborne.selenide.WebDriverRunner;
+import com.codeborne.selenide.logevents.LogEvent;
+import io.qameta.allure.selenide.AllureSelenide;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriverException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// AllureSelenide with its own screenshot and page source capture switched off: captures go through
+// AttachmentStore instead, for the steps selected by -Dallure.attachments=failure|sampled|all|none
+public class AllureAttachments extends AllureSelenide {
+    private static final String POLICY = System.getProperty("allure.attachments", "failure");
+    private static final double SAMPLE_RATE = Double.parseDouble(System.getProperty("allure.attachments.sample-rate", "0.1"));
+    private static final ThreadLocal<Integer> EXPECTED_FAILURES = ThreadLocal.withInitial(() -> 0);
+
+    public AllureAttachments() {
+        screenshots(false);
+        savePageSource(false);
+    }
+
+    static boolean shouldCapture(String policy, boolean failed, double sampleRate) {
+        switch (policy) {
+            case "none":
+                return false;
+            case "all":
+                return true;
+            case "sampled":
+                return failed || ThreadLocalRandom.current().nextDouble() < sampleRate;
+            case "failure":
+                return failed;
+            default:
+                throw new IllegalArgumentException("Unknown allure.attachments policy: " + policy);
+        }
+    }
+
+    // for checks whose failure the caller catches and handles: their FAIL events do not count as failures,
+    // so -Dallure.attachments=failure captures nothing for a test that passes
+    public static <T> T expectingFailures(Supplier<T> action) {
+        EXPECTED_FAILURES.set(EXPECTED_FAILURES.get() + 1);
+        try {
+            return action.get();
+        } finally {
+            EXPECTED_FAILURES.set(EXPECTED_FAILURES.get() - 1);
+        }
+    }
+
+    // runs before AllureSelenide stops the step, so the attachments land on the step that produced them
+    @Override
+    public void afterEvent(LogEvent event) {
+        var failed = event.getStatus() == LogEvent.EventStatus.FAIL && EXPECTED_FAILURES.get() == 0;
+        if (WebDriverRunner.hasWebDriverStarted() && shouldCapture(POLICY, failed, SAMPLE_RATE)) {
+            capture();
+        }
+        super.afterEvent(event);
+    }
+
+    private static void capture() {
+        var store = AttachmentStore.shared();
+        try {
+            var driver = WebDriverRunner.getWebDriver();
+            if (BrowserSession.takesScreenshots() && driver instanceof TakesScreenshot) {
+                var png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+                store.attach("Screenshot", AttachmentStore.JPEG, png);
+            }
+            var source = WebDriverRunner.source();
+            if (source != null) {
+                store.attach("Page source", AttachmentStore.HTML, source.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (WebDriverException e) {
+            // the browser is gone, the step result still reports the failure
+        }
+    }
+}
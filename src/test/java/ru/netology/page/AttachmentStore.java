@@ -0,0 +1,235 @@
+package ru.netology.page;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.Attachment;
+import lombok.SneakyThrows;
+import lombok.Value;
+import ru.netology.metrics.JsonReport;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+// content-addressed attachments for allure-results: a file is named after the SHA-256 of the captured bytes,
+// so an identical screenshot or page source is written once and every later capture only references it.
+// Every format has a fixed type and extension, so the test thread only hashes and links the attachment;
+// compression and writing run on background threads
+public class AttachmentStore {
+    private static final AttachmentStore SHARED = new AttachmentStore(
+            Path.of(System.getProperty("allure.results.directory", "build/allure-results")),
+            Integer.getInteger("allure.attachments.writers", 2));
+
+    private final Path resultsDir;
+    private final ExecutorService writers;
+    private final Set<String> sources = ConcurrentHashMap.newKeySet();
+    private final LongAdder captured = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+    private final LongAdder testThreadNanos = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            SHARED.close();
+            SHARED.writeReport();
+        }));
+    }
+
+    public AttachmentStore(Path resultsDir, int writers) {
+        this.resultsDir = resultsDir;
+        this.writers = Executors.newFixedThreadPool(writers, runnable -> {
+            var thread = new Thread(runnable, "allure-attachments");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static AttachmentStore shared() {
+        return SHARED;
+    }
+
+    // screenshots are always stored as JPEG, even a nearly flat page where PNG would be a little smaller,
+    // so the attachment can be linked before the writers have encoded it
+    public static final Format JPEG = new Format("image/jpeg", "jpg", AttachmentStore::toJpeg);
+    public static final Format HTML = new Format("text/html", "html", AttachmentStore::minifyHtml);
+
+    @Value
+    public static class Format {
+        String type;
+        String extension;
+        UnaryOperator<byte[]> encoder;
+    }
+
+    @Value
+    public static class Stats {
+        long captured;
+        long stored;
+        long deduplicated;
+        long rawBytes;
+        long storedBytes;
+        long bytesSaved;
+        double testThreadMs;
+        double writeMs;
+        // the file writes skipped for deduplicated captures, at the average time of the writes that did happen
+        double ioMsSaved;
+        long resultsDirBytes;
+    }
+
+    // returns the attachment source name; the file appears in resultsDir once the writers get to it
+    public String store(Format format, byte[] raw) {
+        var started = System.nanoTime();
+        captured.increment();
+        rawBytes.add(raw.length);
+        var source = sha256(raw) + "-attachment." + format.getExtension();
+        if (sources.add(source)) {
+            writers.execute(() -> write(source, raw, format.getEncoder()));
+        } else {
+            deduplicated.increment();
+        }
+        testThreadNanos.add(System.nanoTime() - started);
+        return source;
+    }
+
+    // attaches to the running step, or to the test itself outside of steps
+    public void attach(String name, Format format, byte[] raw) {
+        var lifecycle = Allure.getLifecycle();
+        var current = lifecycle.getCurrentTestCaseOrStep();
+        if (current.isEmpty()) {
+            return;
+        }
+        var attachment = new Attachment();
+        attachment.setName(name);
+        attachment.setType(format.getType());
+        attachment.setSource(store(format, raw));
+        if (current.equals(lifecycle.getCurrentTestCase())) {
+            lifecycle.updateTestCase(result -> result.getAttachments().add(attachment));
+        } else {
+            lifecycle.updateStep(result -> result.getAttachments().add(attachment));
+        }
+    }
+
+    private void write(String source, byte[] raw, UnaryOperator<byte[]> encoder) {
+        try {
+            var target = resultsDir.resolve(source);
+            if (Files.exists(target)) {
+                return;
+            }
+            var bytes = encoder.apply(raw);
+            var started = System.nanoTime();
+            Files.createDirectories(resultsDir);
+            // written under a temporary name so a report generated mid-run never picks up a partial file
+            var temp = Files.createTempFile(resultsDir, source, ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            writeNanos.add(System.nanoTime() - started);
+            writes.increment();
+            storedBytes.add(bytes.length);
+        } catch (IOException | RuntimeException e) {
+            sources.remove(source);
+            System.err.println("Could not store attachment " + source + ": " + e.getMessage());
+        }
+    }
+
+    @SneakyThrows
+    public void close() {
+        writers.shutdown();
+        writers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    public Stats stats() {
+        var writeMs = writeNanos.sum() / 1e6;
+        var perWriteMs = writes.sum() == 0 ? 0 : writeMs / writes.sum();
+        return new Stats(captured.sum(), captured.sum() - deduplicated.sum(), deduplicated.sum(), rawBytes.sum(),
+                storedBytes.sum(), rawBytes.sum() - storedBytes.sum(), testThreadNanos.sum() / 1e6, writeMs,
+                perWriteMs * deduplicated.sum(), resultsDirBytes());
+    }
+
+    private long resultsDirBytes() {
+        if (!Files.isDirectory(resultsDir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(resultsDir)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeReport() {
+        if (captured.sum() == 0) {
+            return;
+        }
+        var dir = Path.of(System.getProperty("metrics.dir", "build/metrics"));
+        try {
+            JsonReport.write(stats(), dir.resolve("attachments.json"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SneakyThrows
+    private static String sha256(byte[] bytes) {
+        var digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+        var hex = new StringBuilder(digest.length * 2);
+        for (var b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    // screenshots are flattened onto white and re-encoded as JPEG, which is a fraction of the PNG size for
+    // anything with gradients or anti-aliased text
+    @SneakyThrows
+    public static byte[] toJpeg(byte[] png) {
+        var image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            throw new IllegalArgumentException("Not a readable image");
+        }
+        var rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        var graphics = rgb.createGraphics();
+        graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        graphics.dispose();
+        var writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        var param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(Float.parseFloat(System.getProperty("allure.attachments.jpeg-quality", "0.7")));
+        var out = new ByteArrayOutputStream();
+        try (var stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // drops comments and indentation; line breaks stay so inline scripts with // comments still read correctly
+    public static byte[] minifyHtml(byte[] html) {
+        return new String(html, StandardCharsets.UTF_8)
+                .replaceAll("(?s)<!--.*?-->", "")
+                .replaceAll("[ \\t]*\\R[ \\t\\r\\n]*", "\n")
+                .replaceAll(">\\n<", "><")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
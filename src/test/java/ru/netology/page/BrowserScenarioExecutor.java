@@ -0,0 +1,57 @@
+package ru.netology.page;
+
+import ru.netology.Options;
+import ru.netology.api.ShopClient;
+import ru.netology.replay.Scenario;
+import ru.netology.replay.ScenarioExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// replays credit scenarios through CreditPage, pay scenarios are skipped; every worker thread keeps its own BrowserSession, so
+// --concurrency is the number of browsers. -Dbrowser.mode=htmlunit makes them cheap enough for large files
+public class BrowserScenarioExecutor implements ScenarioExecutor {
+    private String url;
+    private ExecutorService workers;
+
+    @Override
+    public String mode() {
+        return "browser";
+    }
+
+    @Override
+    public void start(Options options) {
+        url = options.getString("url", System.getProperty("shop.url", "http://localhost:8080"));
+        var threads = options.getInt("concurrency", 4);
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "replay-browser");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean supports(Scenario scenario) {
+        return scenario.getEndpoint() == ShopClient.Endpoint.CREDIT;
+    }
+
+    @Override
+    public CompletableFuture<Result> execute(Scenario scenario) {
+        return CompletableFuture.supplyAsync(() -> {
+            var creditPage = BrowserSession.acquire(url);
+            creditPage.creditByCard(scenario.getCard());
+            var text = creditPage.outcomeText();
+            if (text == null) {
+                return new Result("TIMEOUT", null);
+            }
+            return new Result(creditPage.isInputInvalid() ? ShopClient.Outcome.VALIDATION.name() : null, text);
+        }, workers);
+    }
+
+    // browsers still open are closed by Selenide's own shutdown hook
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,71 @@
+package ru.netology.page;
+
+import com.codeborne.selenide.Selenide;
+import com.codeborne.selenide.WebDriverRunner;
+import org.openqa.selenium.WebDriverException;
+
+import static com.codeborne.selenide.Selenide.open;
+
+public class BrowserSession {
+    private static final int MAX_USES = Integer.getInteger("browser.max-uses", 50);
+    private static final ThreadLocal<BrowserSession> SESSIONS = ThreadLocal.withInitial(BrowserSession::new);
+    private static final boolean BROWSERLESS = "htmlunit".equals(System.getProperty("browser.mode", "chrome"));
+
+    private int uses;
+    private boolean formOpened;
+
+    private BrowserSession() {
+    }
+
+    public static boolean isBrowserless() {
+        return BROWSERLESS;
+    }
+
+    // there is nothing to capture without a rendering engine, Chrome remains the mode for visual checks
+    public static boolean takesScreenshots() {
+        return !BROWSERLESS;
+    }
+
+    public static CreditPage acquire(String url) {
+        return SESSIONS.get().prepare(url);
+    }
+
+    private CreditPage prepare(String url) {
+        var creditPage = new CreditPage();
+        if (formOpened && uses < MAX_USES && isHealthy(url) && tryReset(creditPage)) {
+            uses++;
+            return creditPage;
+        }
+        if (WebDriverRunner.hasWebDriverStarted() && (uses >= MAX_USES || !isHealthy(url))) {
+            Selenide.closeWebDriver();
+            uses = 0;
+        }
+        open(url);
+        creditPage.openCreditPayPage();
+        formOpened = true;
+        uses++;
+        return creditPage;
+    }
+
+    // a failed reset only means the page is reopened, so it captures no attachments
+    private static boolean tryReset(CreditPage creditPage) {
+        try {
+            return AllureAttachments.expectingFailures(creditPage::resetForm);
+        } catch (AssertionError | WebDriverException e) {
+            return false;
+        }
+    }
+
+    private static boolean isHealthy(String url) {
+        if (!WebDriverRunner.hasWebDriverStarted()) {
+            return false;
+        }
+        try {
+            return WebDriverRunner.url().startsWith(url)
+                    && "complete".equals(Selenide.executeJavaScript("return document.readyState"))
+                    && HtmlUnitDriverProvider.takeScriptErrors(WebDriverRunner.getWebDriver()) == 0;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package ru.netology.page;
 
 import com.codeborne.selenide.SelenideElement;
+import org.openqa.selenium.Keys;
 import ru.netology.data.DataHelper;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
 
+import static com.codeborne.selenide.CollectionCondition.size;
 import static com.codeborne.selenide.Condition.*;
 import static com.codeborne.selenide.Selectors.byText;
 import static com.codeborne.selenide.Selenide.$;
+import static com.codeborne.selenide.Selenide.$$;
 
 
 public class CreditPage {
-
+        private static final Duration NOTIFICATION_TIMEOUT = Duration.ofSeconds(15);
+        private static final Duration SETTLE_TIMEOUT = Duration.ofSeconds(1);
+        // select-all is Cmd+A on macOS, Ctrl+A elsewhere
+        private static final Keys SELECT_ALL =
+                System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("mac") ? Keys.COMMAND : Keys.CONTROL;
 
         private SelenideElement buyCreditCardButton = $("div > button:nth-child(4) > span > span");
         private SelenideElement headingCreditPay = $(byText("Кредит по данным карты"));
@@ -26,33 +35,114 @@ public class CreditPage {
         private SelenideElement notificationStatusOk = $(".notification_status_ok");
         private SelenideElement notificationErrorContent = $(".notification_status_error .notification__content");
         private SelenideElement inputInvalid = $(".input_invalid");
+        private NotificationWatcher.Outcome outcome;
 
         public void openCreditPayPage() {
             buyCreditCardButton.click();
             headingCreditPay.shouldBe(visible);
         }
 
-        public void waitingNotification() {
-            notificationChecking.shouldHave(visible, Duration.ofSeconds(15));
+        private NotificationWatcher.Outcome awaitOutcome() {
+            if (outcome == null) {
+                outcome = NotificationWatcher.awaitOutcome(NOTIFICATION_TIMEOUT);
+            }
+            return outcome;
+        }
+
+        public NotificationWatcher.Outcome waitingNotification() {
+            if (awaitOutcome() == NotificationWatcher.Outcome.TIMEOUT) {
+                notificationChecking.shouldBe(visible, Duration.ZERO);
+            }
+            return outcome;
         }
 
         public void shouldNotificationSuccessfulText(String expectedText) {
-            notificationOkContent.shouldHave(exactText(expectedText)).shouldBe(visible, Duration.ofSeconds(15));
+            waitingNotification();
+            notificationOkContent.shouldBe(visible, SETTLE_TIMEOUT).shouldHave(exactText(expectedText), SETTLE_TIMEOUT);
         }
 
         public void shouldNotificationUnsuccessfulText(String expectedText) {
-            notificationErrorContent.shouldHave(exactText(expectedText)).shouldBe(visible, Duration.ofSeconds(15));
+            waitingNotification();
+            notificationErrorContent.shouldBe(visible, SETTLE_TIMEOUT).shouldHave(exactText(expectedText), SETTLE_TIMEOUT);
         }
 
         public void shouldOkNotificationInvisibile() {
-            notificationStatusOk.shouldNotBe(visible).should(disappear, Duration.ofSeconds(15));
+            awaitOutcome();
+            notificationStatusOk.shouldNotBe(visible, Duration.ZERO);
         }
 
         public void checkInputInvalid(String expectedText) {
             inputInvalid.shouldHave(exactText(expectedText)).shouldBe(visible, Duration.ofSeconds(5));
         }
 
+        public boolean isOpened() {
+            return headingCreditPay.isDisplayed();
+        }
+
+        public boolean resetForm() {
+            for (var closer : $$(".notification__closer").filter(visible)) {
+                closer.click();
+            }
+            for (var input : List.of(cardNumder, month, year, cardHolder, cardCode)) {
+                input.sendKeys(Keys.chord(SELECT_ALL, "a"), Keys.BACK_SPACE);
+                // HtmlUnit's keyboard does not always honour select-all
+                if (BrowserSession.isBrowserless() && !input.getValue().isEmpty()) {
+                    input.clear();
+                }
+            }
+            var cleared = AllureAttachments.expectingFailures(() -> {
+                try {
+                    $$(".notification").filter(visible).shouldHave(size(0), Duration.ofSeconds(2));
+                    return true;
+                } catch (AssertionError e) {
+                    return false;
+                }
+            });
+            return cleared && isOpened() && !inputInvalid.exists();
+        }
+
+        // what the form shows after submit: the field errors when validation stopped it, otherwise the text
+        // of the notification, or null when none appeared in time
+        public String outcomeText() {
+            var invalid = $$(".input_invalid");
+            if (!invalid.isEmpty()) {
+                return String.join(", ", invalid.texts());
+            }
+            switch (awaitOutcome()) {
+                case OK:
+                    return notificationOkContent.getText();
+                case ERROR:
+                    return notificationErrorContent.getText();
+                default:
+                    return null;
+            }
+        }
+
+        public boolean isInputInvalid() {
+            return inputInvalid.exists();
+        }
+
+        private static void setIfChanged(SelenideElement input, String current, String next) {
+            if (!next.equals(current)) {
+                input.setValue(next);
+            }
+        }
+
+        public void fillChanged(DataHelper.CardInfo current, DataHelper.CardInfo next) {
+            setIfChanged(cardNumder, current == null ? null : current.getNumber(), next.getNumber());
+            setIfChanged(month, current == null ? null : current.getMonth(), next.getMonth());
+            setIfChanged(year, current == null ? null : current.getYear(), next.getYear());
+            setIfChanged(cardHolder, current == null ? null : current.getHolder(), next.getHolder());
+            setIfChanged(cardCode, current == null ? null : current.getCvcCode(), next.getCvcCode());
+        }
+
+        public void submit() {
+            outcome = null;
+            buttonSubmit.click();
+        }
+
         public void creditByCard(DataHelper.CardInfo cardInfo) {
+            outcome = null;
             cardNumder.setValue(cardInfo.getNumber());
             month.setValue(cardInfo.getMonth());
             year.setValue(cardInfo.getYear());
@@ -0,0 +1,81 @@
+package ru.netology.page;
+
+import com.codeborne.selenide.WebDriverProvider;
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import com.gargoylesoftware.htmlunit.ScriptException;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.SilentJavaScriptErrorListener;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// selected with -Dbrowser.mode=htmlunit: the shop page is fetched over plain HTTP and its scripts run in
+// HtmlUnit's JS engine, so a session costs a few megabytes of heap instead of a Chrome process
+public class HtmlUnitDriverProvider implements WebDriverProvider {
+
+    @Override
+    public WebDriver createDriver(Capabilities capabilities) {
+        return new Driver();
+    }
+
+    // script errors since the last call; BrowserSession treats a session with any as unhealthy
+    public static int takeScriptErrors(WebDriver driver) {
+        while (driver instanceof WrapsDriver) {
+            driver = ((WrapsDriver) driver).getWrappedDriver();
+        }
+        return driver instanceof Driver ? ((Driver) driver).takeScriptErrors() : 0;
+    }
+
+    private static class Driver extends HtmlUnitDriver {
+        Driver() {
+            super(BrowserVersion.CHROME, true);
+        }
+
+        @Override
+        protected WebClient modifyWebClient(WebClient client) {
+            // CSS stays on: notification and .input_invalid visibility come from the stylesheet
+            client.getOptions().setCssEnabled(true);
+            client.getOptions().setDownloadImages(false);
+            client.getOptions().setFetchPolyfillEnabled(true);
+            // a script error does not abort the page load, the listener logs and counts it instead
+            client.getOptions().setThrowExceptionOnScriptError(false);
+            client.getOptions().setPrintContentOnFailingStatusCode(false);
+            client.setJavaScriptErrorListener(new ScriptErrors());
+            return client;
+        }
+
+        int takeScriptErrors() {
+            var listener = getWebClient().getJavaScriptErrorListener();
+            return listener instanceof ScriptErrors ? ((ScriptErrors) listener).count.getAndSet(0) : 0;
+        }
+    }
+
+    private static class ScriptErrors extends SilentJavaScriptErrorListener {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void scriptException(HtmlPage page, ScriptException scriptException) {
+            record(page, scriptException.getMessage());
+        }
+
+        @Override
+        public void timeoutError(HtmlPage page, long allowedTime, long executionTime) {
+            record(page, "script ran " + executionTime + " ms, " + allowedTime + " ms allowed");
+        }
+
+        @Override
+        public void loadScriptError(HtmlPage page, URL scriptUrl, Exception exception) {
+            record(page, "could not load " + scriptUrl + ": " + exception.getMessage());
+        }
+
+        private void record(HtmlPage page, String message) {
+            count.incrementAndGet();
+            System.err.println("Script error on " + (page == null ? "?" : page.getUrl()) + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.netology.page;
+
+import com.codeborne.selenide.Selenide;
+import com.codeborne.selenide.WebDriverRunner;
+
+import java.time.Duration;
+
+public class NotificationWatcher {
+    // resolves from a MutationObserver on the notification markup; transition events and a slow
+    // re-check cover the case where the class flips before the fade-in makes the element visible
+    private static final String AWAIT_OUTCOME_SCRIPT =
+            "var done = arguments[arguments.length - 1];\n" +
+            "var timeoutMs = arguments[0];\n" +
+            "function shown(node) {\n" +
+            "  var style = window.getComputedStyle(node);\n" +
+            "  var rect = node.getBoundingClientRect();\n" +
+            "  return style.display !== 'none' && style.visibility !== 'hidden'\n" +
+            "      && parseFloat(style.opacity) > 0 && rect.width > 0 && rect.height > 0;\n" +
+            "}\n" +
+            "function outcome() {\n" +
+            "  var nodes = document.querySelectorAll('.notification');\n" +
+            "  for (var i = 0; i < nodes.length; i++) {\n" +
+            "    if (!shown(nodes[i])) continue;\n" +
+            "    if (nodes[i].classList.contains('notification_status_ok')) return 'OK';\n" +
+            "    if (nodes[i].classList.contains('notification_status_error')) return 'ERROR';\n" +
+            "  }\n" +
+            "  return null;\n" +
+            "}\n" +
+            "var finished = false, observer, interval, timer;\n" +
+            "function finish(result) {\n" +
+            "  if (finished) return;\n" +
+            "  finished = true;\n" +
+            "  observer.disconnect();\n" +
+            "  clearInterval(interval);\n" +
+            "  clearTimeout(timer);\n" +
+            "  document.removeEventListener('transitionend', check, true);\n" +
+            "  document.removeEventListener('animationend', check, true);\n" +
+            "  done(result);\n" +
+            "}\n" +
+            "function check() {\n" +
+            "  var result = outcome();\n" +
+            "  if (result) finish(result);\n" +
+            "}\n" +
+            "observer = new MutationObserver(check);\n" +
+            "observer.observe(document.body, {attributes: true, childList: true, characterData: true, subtree: true});\n" +
+            "document.addEventListener('transitionend', check, true);\n" +
+            "document.addEventListener('animationend', check, true);\n" +
+            "interval = setInterval(check, 250);\n" +
+            "timer = setTimeout(function () { finish('TIMEOUT'); }, timeoutMs);\n" +
+            "check();";
+
+    private NotificationWatcher() {
+    }
+
+    public enum Outcome {
+        OK,
+        ERROR,
+        TIMEOUT
+    }
+
+    public static Outcome awaitOutcome(Duration timeout) {
+        WebDriverRunner.getWebDriver().manage().timeouts().scriptTimeout(timeout.plusSeconds(5));
+        String result = Selenide.executeAsyncJavaScript(AWAIT_OUTCOME_SCRIPT, timeout.toMillis());
+        return Outcome.valueOf(result);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.netology.page;
+
+import io.qameta.allure.listener.StepLifecycleListener;
+import io.qameta.allure.model.StepResult;
+import ru.netology.metrics.StepTimings;
+
+import java.util.concurrent.TimeUnit;
+
+public class StepTimingListener implements StepLifecycleListener {
+
+    // AllureSelenide reports commands as e.g. $(".input") set value(1111 2222 3333 4444);
+    // dropping the trailing arguments groups every call of the same command on the same element
+    static String stepName(String name) {
+        return name == null ? "<unnamed>" : name.replaceFirst("\\([^()]*\\)\\s*$", "()");
+    }
+
+    @Override
+    public void afterStepStop(StepResult result) {
+        if (result.getStart() == null || result.getStop() == null) {
+            return;
+        }
+        StepTimings.record(stepName(result.getName()), TimeUnit.MILLISECONDS.toNanos(result.getStop() - result.getStart()));
+    }
+}
@@ -0,0 +1,61 @@
+package ru.netology.page;
+
+import lombok.Value;
+import org.junit.jupiter.api.DynamicTest;
+import ru.netology.data.DataHelper;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static com.codeborne.selenide.logevents.SelenideLogger.step;
+
+public class ValidationMatrix {
+    private final String url;
+    private final DataHelper.CardInfo base;
+    private CreditPage creditPage;
+    private DataHelper.CardInfo current;
+
+    public ValidationMatrix(String url, DataHelper.CardInfo base) {
+        this.url = url;
+        this.base = base;
+    }
+
+    @Value
+    public static class Case {
+        String name;
+        UnaryOperator<DataHelper.CardInfo> variant;
+        String expectedMessage;
+    }
+
+    public static Case validationCase(String name, UnaryOperator<DataHelper.CardInfo> variant, String expectedMessage) {
+        return new Case(name, variant, expectedMessage);
+    }
+
+    // every case runs on the same loaded form: only the inputs that differ from what is already
+    // typed are rewritten, so the page is opened once for the whole matrix
+    public Stream<DynamicTest> dynamicTests(List<Case> cases) {
+        return cases.stream().map(validationCase -> DynamicTest.dynamicTest(validationCase.getName(), () -> check(validationCase)));
+    }
+
+    private void check(Case validationCase) {
+        var cardInfo = validationCase.getVariant().apply(base);
+        try {
+            if (creditPage == null) {
+                creditPage = BrowserSession.acquire(url);
+                current = null;
+            }
+            step("Заполняем изменённые поля и отправляем форму", () -> {
+                creditPage.fillChanged(current, cardInfo);
+                creditPage.submit();
+            });
+            current = cardInfo;
+            step("Проверка уведомления об ошибке", () -> {
+                creditPage.checkInputInvalid(validationCase.getExpectedMessage());
+            });
+        } catch (RuntimeException | AssertionError e) {
+            creditPage = null;
+            throw e;
+        }
+    }
+}
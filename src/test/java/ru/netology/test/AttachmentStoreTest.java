@@ -0,0 +1,82 @@
+package ru.netology.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.netology.page.AttachmentStore;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttachmentStoreTest {
+
+    private static byte[] screenshot(Color color) throws IOException {
+        var image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
+        var graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.WHITE, 400, 300, color));
+        graphics.fillRect(0, 0, 400, 300);
+        graphics.setColor(Color.BLACK);
+        graphics.drawString("Кредит по данным карты", 20, 40);
+        graphics.dispose();
+        var out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @DisplayName("Одинаковые вложения записываются на диск один раз")
+    @Test
+    void storesIdenticalAttachmentsOnce(@TempDir Path resultsDir) throws IOException {
+        var store = new AttachmentStore(resultsDir, 2);
+        var first = screenshot(Color.LIGHT_GRAY);
+
+        var source = store.store(AttachmentStore.JPEG, first);
+        var again = store.store(AttachmentStore.JPEG, first.clone());
+        var other = store.store(AttachmentStore.JPEG, screenshot(Color.GRAY));
+        store.close();
+
+        assertEquals(source, again);
+        assertNotEquals(source, other);
+        assertTrue(source.endsWith("-attachment.jpg"), source);
+        try (var files = Files.list(resultsDir)) {
+            assertEquals(2, files.collect(Collectors.toList()).size());
+        }
+        var stats = store.stats();
+        assertEquals(3, stats.getCaptured());
+        assertEquals(1, stats.getDeduplicated());
+        assertTrue(stats.getStoredBytes() < stats.getRawBytes(), stats.toString());
+        assertNotNull(ImageIO.read(resultsDir.resolve(source).toFile()));
+    }
+
+    @DisplayName("Почти однотонный снимок тоже сохраняется как JPEG")
+    @Test
+    void storesFlatScreenshotAsJpeg() throws IOException {
+        var image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
+        var out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+
+        var jpeg = AttachmentStore.toJpeg(out.toByteArray());
+
+        assertEquals((byte) 0xFF, jpeg[0]);
+        assertEquals((byte) 0xD8, jpeg[1]);
+    }
+
+    @DisplayName("Исходный код страницы сохраняется без комментариев и отступов")
+    @Test
+    void minifiesPageSource() {
+        var html = "<html>\n  <!-- build 42 -->\n  <body>\n    <div class=\"notification\">\n      Успешно\n    </div>\n  </body>\n</html>";
+
+        var minified = new String(AttachmentStore.minifyHtml(html.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+
+        assertEquals("<html><body><div class=\"notification\">\nУспешно\n</div></body></html>", minified);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.netology.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.netology.data.CardPools;
+import ru.netology.data.DataHelper;
+
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardPoolsTest {
+
+    private static YearMonth expiry(DataHelper.CardInfo cardInfo) {
+        return YearMonth.of(2000 + Integer.parseInt(cardInfo.getYear()), Integer.parseInt(cardInfo.getMonth()));
+    }
+
+    @DisplayName("Пулы карт с одинаковым seed совпадают")
+    @Test
+    void sameSeedGivesSameCards() {
+        var first = CardPools.generate(42, 64);
+        var second = CardPools.generate(42, 64);
+
+        for (int i = 0; i < 64; i++) {
+            assertEquals(first.nextApproved(), second.nextApproved());
+            assertEquals(first.nextWithExpiredYear(), second.nextWithExpiredYear());
+        }
+    }
+
+    @DisplayName("Срок действия карт из пула соответствует их виду")
+    @Test
+    void expiryMatchesKind() {
+        var pools = CardPools.generate(7, 256);
+        var now = YearMonth.now();
+
+        for (int i = 0; i < 256; i++) {
+            var valid = expiry(pools.nextApproved());
+            var expired = expiry(pools.nextWithExpiredYear());
+            var farFuture = expiry(pools.nextWithFarFutureYear());
+            assertTrue(valid.isAfter(now) && !valid.isAfter(now.plusYears(5)), valid.toString());
+            assertTrue(expired.isBefore(now), expired.toString());
+            assertTrue(farFuture.isAfter(now.plusYears(5)), farFuture.toString());
+        }
+    }
+
+    @DisplayName("Пул раздаёт все карты при конкурентном доступе")
+    @Test
+    void handsOutEveryCardAcrossThreads() {
+        var size = 512;
+        var pools = CardPools.generate(1, size);
+        var seen = ConcurrentHashMap.<DataHelper.CardInfo>newKeySet();
+
+        IntStream.range(0, size).parallel().forEach(i -> seen.add(pools.nextWithRandomNumber()));
+
+        var expected = new HashSet<DataHelper.CardInfo>();
+        var reference = CardPools.generate(1, size);
+        for (int i = 0; i < size; i++) {
+            expected.add(reference.nextWithRandomNumber());
+        }
+        assertEquals(expected, seen);
+    }
+}
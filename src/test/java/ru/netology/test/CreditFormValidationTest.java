@@ -0,0 +1,74 @@
+package ru.netology.test;
+
+import com.codeborne.selenide.logevents.SelenideLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import ru.netology.data.DataHelper;
+import ru.netology.page.AllureAttachments;
+import ru.netology.page.ValidationMatrix;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static ru.netology.page.ValidationMatrix.validationCase;
+
+public class CreditFormValidationTest {
+    private static final String SHOP_URL = System.getProperty("shop.url", "http://localhost:8080");
+
+    @BeforeEach
+    void setUp() {
+        SelenideLogger.addListener("allure", new AllureAttachments());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SelenideLogger.removeListener("allure");
+    }
+
+    private static List<ValidationMatrix.Case> cases() {
+        var current = DataHelper.getCurrentMonthAndYear();
+        var expired = DataHelper.getInvalidCardWithPreviousYears();
+        var farFuture = DataHelper.getInvalidCardWithFutureYears();
+        return List.of(
+                validationCase("Неуспешная оплата в кредит без указания номера карты",
+                        card -> card.withNumber(""), "Номер карты Неверный формат"),
+                validationCase("Неуспешная попытка оплаты в кредит с 15-значным номером карты",
+                        card -> card.withNumber(DataHelper.getInvalidCardNumberLessThan16()), "Номер карты Неверный формат"),
+                validationCase("Неуспешная оплата в кредит без указания месяца карты",
+                        card -> card.withMonth(""), "Месяц Неверный формат"),
+                validationCase("Неуспешная оплата в кредит с указанием прошлого месяца текущего года карты",
+                        card -> card.withMonth(current.getCardMonth()).withYear(current.getCardYear()), "Месяц Неверно указан срок действия карты"),
+                validationCase("Неуспешная оплата в кредит с указанием истекшего года карты",
+                        card -> card.withMonth(expired.getCardMonth()).withYear(expired.getCardYear()), "Год Истёк срок действия карты"),
+                validationCase("Неуспешная оплата в кредит с указанием будущего года карты(больше 5 лет)",
+                        card -> card.withMonth(farFuture.getCardMonth()).withYear(farFuture.getCardYear()), "Год Неверно указан срок действия карты"),
+                validationCase("Неуспешная оплата в кредит без указания года карты",
+                        card -> card.withYear(""), "Год Неверный формат"),
+                validationCase("Неуспешная оплата в кредит с указанием 2-значного номера CVV/CVC карты",
+                        card -> card.withCvcCode(DataHelper.getInvalidCardCode()), "CVC/CVV Неверный формат"),
+                validationCase("Неуспешная оплата в кредит без указания номера CVV/CVC карты",
+                        card -> card.withCvcCode(""), "CVC/CVV Неверный формат"),
+                validationCase("Неуспешная оплата без указания владельца карты",
+                        card -> card.withHolder(""), "Владелец Поле обязательно для заполнения"),
+                validationCase("Неуспешная оплата со спец.символами в поле владелец по карте в кредит",
+                        card -> card.withHolder(DataHelper.getInvalidCardHolderNameSpecSimbol()), "Владелец Поле обязательно для заполнения"),
+                validationCase("Неуспешная оплата с цифрами в поле владелец по карте в кредит",
+                        card -> card.withHolder(DataHelper.getInvalidCardHolderNameNumber()), "Владелец Поле обязательно для заполнения")
+        );
+    }
+
+    @DisplayName("Валидация полей формы покупки в кредит")
+    @TestFactory
+    @Execution(ExecutionMode.SAME_THREAD)
+    Stream<DynamicTest> creditFormValidation() {
+        // the gate knows no random number, so a case the front end lets through writes no purchase rows
+        // that would land in the window of a test holding ResourceLocks.PURCHASE_ROWS
+        var matrix = new ValidationMatrix(SHOP_URL, DataHelper.getCardWithRandomNumber());
+        return matrix.dynamicTests(cases());
+    }
+}
@@ -0,0 +1,100 @@
+package ru.netology.test;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import ru.netology.data.DataHelper;
+import ru.netology.gate.GateEmulator;
+import ru.netology.proxy.Fault;
+import ru.netology.proxy.FaultProxy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ResourceLock("fault-proxy")
+public class FaultProxyTest {
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private static GateEmulator gate;
+    private static FaultProxy proxy;
+
+    @BeforeAll
+    static void setUpAll() throws Exception {
+        gate = GateEmulator.start(0);
+        proxy = FaultProxy.start(0, "http://localhost:" + gate.getPort(), Map.of());
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        proxy.close();
+        gate.close();
+    }
+
+    // restored after every test, so a failed assertion does not leave a fault active for the next one
+    @AfterEach
+    void tearDown() {
+        proxy.setFault("credit", Fault.NONE);
+        proxy.setFault("payment", Fault.NONE);
+    }
+
+    private static HttpResponse<String> post(String path, String cardNumber) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + proxy.getPort() + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"number\":\"" + cardNumber + "\"}"))
+                .build();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @DisplayName("Прокси без сбоев передаёт ответ шлюза без изменений")
+    @Test
+    void forwardsGateResponse() throws Exception {
+        var response = post("/credit", DataHelper.approvedCardNumber());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"status\":\"APPROVED\"}", response.body());
+        assertEquals(400, post("/credit", "0000 0000 0000 0000").statusCode());
+    }
+
+    @DisplayName("Прокси добавляет заданную задержку и ограничивает скорость ответа")
+    @Test
+    void delaysAndThrottlesResponse() throws Exception {
+        proxy.setFault("payment", Fault.NONE.withDelayMs(300).withBytesPerSecond(50));
+
+        var started = System.nanoTime();
+        var response = post("/payment", DataHelper.declinedCardNumber());
+        var elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals("{\"status\":\"DECLINED\"}", response.body());
+        assertTrue(elapsedMs >= 300 + 200, "elapsed " + elapsedMs + " ms");
+    }
+
+    @DisplayName("Прокси обрывает соединение при сбросе")
+    @Test
+    void resetsConnection() {
+        proxy.setFault("credit", Fault.NONE.withResetRate(1.0));
+
+        assertThrows(IOException.class, () -> post("/credit", DataHelper.approvedCardNumber()));
+        assertTrue(proxy.stats().get("credit").getResets() > 0);
+    }
+
+    @DisplayName("Сбои шлюза читаются из файла настроек")
+    @Test
+    void readsFaultsFromProperties() {
+        var properties = new Properties();
+        properties.setProperty("default.delay-ms", "100");
+        properties.setProperty("credit.delay-ms", "2000");
+        properties.setProperty("payment.timeout-rate", "0.5");
+
+        assertEquals(Fault.NONE.withDelayMs(2000), Fault.fromProperties(properties, "credit"));
+        assertEquals(Fault.NONE.withDelayMs(100).withTimeoutRate(0.5), Fault.fromProperties(properties, "payment"));
+    }
+}
@@ -0,0 +1,72 @@
+package ru.netology.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.netology.api.ShopClient;
+import ru.netology.data.DataHelper;
+import ru.netology.fuzz.CardField;
+import ru.netology.fuzz.CardGrammar;
+import ru.netology.fuzz.CardRules;
+import ru.netology.fuzz.Shrinker;
+
+import java.time.YearMonth;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FuzzerTest {
+    private static final YearMonth NOW = YearMonth.of(2024, 6);
+
+    private static DataHelper.CardInfo card(String number, String month, String year, String holder, String cvc) {
+        return new DataHelper.CardInfo(number, month, year, holder, cvc);
+    }
+
+    @DisplayName("Ожидаемый результат покупки соответствует правилам полей формы")
+    @Test
+    void rulesFollowPlan() {
+        var approved = DataHelper.approvedCardNumber();
+
+        assertEquals(CardRules.Expectation.APPROVED, CardRules.expect(card(approved, "06", "24", "Ivan Ivanov", "123"), NOW));
+        assertEquals(CardRules.Expectation.DECLINED,
+                CardRules.expect(card(DataHelper.declinedCardNumber(), "12", "29", "Anna-Maria Petrova", "000"), NOW));
+        assertEquals(CardRules.Expectation.REJECTED, CardRules.expect(card(approved, "05", "24", "Ivan Ivanov", "123"), NOW));
+        assertEquals(CardRules.Expectation.REJECTED, CardRules.expect(card(approved, "01", "30", "Ivan Ivanov", "123"), NOW));
+        assertEquals(CardRules.Expectation.REJECTED, CardRules.expect(card(approved, "13", "25", "Ivan Ivanov", "123"), NOW));
+        assertEquals(CardRules.Expectation.REJECTED, CardRules.expect(card(approved, "06", "25", "Ivan", "123"), NOW));
+        assertEquals(CardRules.Expectation.REJECTED, CardRules.expect(card(approved, "06", "25", "I Ivanov", "123"), NOW));
+        assertEquals(CardRules.Expectation.REJECTED, CardRules.expect(card(approved, "06", "25", "12345", "123"), NOW));
+        assertEquals(CardRules.Expectation.REJECTED, CardRules.expect(card(approved, "06", "25", "Ivan Ivanov", "12"), NOW));
+        assertEquals(CardRules.Expectation.REJECTED,
+                CardRules.expect(card("1111 2222 3333 4445", "06", "25", "Ivan Ivanov", "123"), NOW));
+        assertTrue(CardRules.Expectation.REJECTED.matches(ShopClient.Outcome.VALIDATION));
+        assertFalse(CardRules.Expectation.REJECTED.matches(ShopClient.Outcome.SERVER_ERROR));
+    }
+
+    @DisplayName("Генератор с одинаковым seed выдаёт одинаковые карты")
+    @Test
+    void grammarIsReproducible() {
+        var first = new CardGrammar(42, NOW);
+        var second = new CardGrammar(42, NOW);
+
+        for (int i = 0; i < 1000; i++) {
+            var firstFields = EnumSet.noneOf(CardField.class);
+            var secondFields = EnumSet.noneOf(CardField.class);
+            assertEquals(first.generate(i, firstFields), second.generate(i, secondFields));
+            assertEquals(firstFields, secondFields);
+            assertFalse(firstFields.isEmpty());
+        }
+    }
+
+    @DisplayName("Сокращение оставляет только поле, вызывающее ошибку")
+    @Test
+    void shrinksToFailingField() {
+        var grammar = new CardGrammar(1, NOW);
+        var canonical = grammar.canonical(DataHelper.approvedCardNumber());
+        var failing = card("1111 2222 3333 444", "00", "1", "Ivan 42 Ivanov", "99");
+
+        var shrunk = new Shrinker(candidate -> candidate.getHolder().contains("4"), 500).shrink(failing, canonical);
+
+        assertEquals(canonical.withHolder("4"), shrunk.getCard());
+        assertTrue(shrunk.getAttempts() <= 500);
+    }
+}
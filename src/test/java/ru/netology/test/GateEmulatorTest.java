@@ -0,0 +1,99 @@
+package ru.netology.test;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.netology.data.DataHelper;
+import ru.netology.gate.CardRule;
+import ru.netology.gate.GateEmulator;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GateEmulatorTest {
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private static GateEmulator gate;
+
+    @BeforeAll
+    static void setUpAll() throws Exception {
+        var rules = GateEmulator.defaultRules();
+        rules.put("4444333322221111", CardRule.of("APPROVED").withLatency(300, 0));
+        rules.put("8888777766665555", CardRule.of("APPROVED").withErrorRate(1.0));
+        gate = GateEmulator.start(0, rules);
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        gate.close();
+    }
+
+    private static HttpResponse<String> post(String path, String cardNumber) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + gate.getPort() + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"number\":\"" + cardNumber + "\"}"))
+                .build();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @DisplayName("Эмулятор шлюза одобряет карту APPROVED")
+    @Test
+    void approvesApprovedCard() throws Exception {
+        var response = post("/payment", DataHelper.approvedCardNumber());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"status\":\"APPROVED\"}", response.body());
+    }
+
+    @DisplayName("Эмулятор шлюза отклоняет карту DECLINED")
+    @Test
+    void declinesDeclinedCard() throws Exception {
+        var response = post("/credit", DataHelper.declinedCardNumber());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"status\":\"DECLINED\"}", response.body());
+    }
+
+    @DisplayName("Эмулятор шлюза не принимает неизвестную карту")
+    @Test
+    void rejectsUnknownCard() throws Exception {
+        assertEquals(400, post("/payment", "0000 0000 0000 0000").statusCode());
+    }
+
+    @DisplayName("Эмулятор шлюза выдерживает заданную задержку")
+    @Test
+    void appliesConfiguredLatency() throws Exception {
+        var started = System.nanoTime();
+        var response = post("/payment", "4444 3333 2222 1111");
+        var elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(200, response.statusCode());
+        assertTrue(elapsedMillis >= 300, "elapsed " + elapsedMillis + " ms");
+    }
+
+    @DisplayName("Эмулятор шлюза возвращает ошибку с заданной вероятностью")
+    @Test
+    void injectsErrors() throws Exception {
+        assertEquals(500, post("/credit", "8888 7777 6666 5555").statusCode());
+    }
+
+    @DisplayName("Правила эмулятора шлюза читаются из properties")
+    @Test
+    void readsRulesFromProperties() {
+        var properties = new Properties();
+        properties.setProperty("default.latency-ms", "10");
+        properties.setProperty("4444333322221111.status", "DECLINED");
+        properties.setProperty("4444333322221111.error-rate", "0.5");
+
+        var rules = CardRule.fromProperties(properties, Map.of("1111 2222 3333 4444", CardRule.of("APPROVED")));
+
+        assertEquals(new CardRule("APPROVED", 10, 0, 0), rules.get("1111222233334444"));
+        assertEquals(new CardRule("DECLINED", 10, 0, 0.5), rules.get("4444333322221111"));
+    }
+}
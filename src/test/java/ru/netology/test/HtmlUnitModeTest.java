@@ -0,0 +1,31 @@
+package ru.netology.test;
+
+import com.codeborne.selenide.WebDriverRunner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import ru.netology.page.BrowserSession;
+import ru.netology.page.HtmlUnitDriverProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnabledIfSystemProperty(named = "browser.mode", matches = "htmlunit")
+public class HtmlUnitModeTest {
+    private static final String SHOP_URL = System.getProperty("shop.url", "http://localhost:8080");
+
+    @DisplayName("Форма оплаты в кредит открывается в HtmlUnit без ошибок в скриптах")
+    @Test
+    void rendersCreditFormWithoutScriptErrors() {
+        var creditPage = BrowserSession.acquire(SHOP_URL);
+
+        var driver = WebDriverRunner.getWebDriver();
+        while (driver instanceof WrapsDriver) {
+            driver = ((WrapsDriver) driver).getWrappedDriver();
+        }
+        assertInstanceOf(HtmlUnitDriver.class, driver);
+        assertTrue(creditPage.isOpened());
+        assertEquals(0, HtmlUnitDriverProvider.takeScriptErrors(WebDriverRunner.getWebDriver()));
+    }
+}
@@ -0,0 +1,163 @@
+package ru.netology.test;
+
+import io.qameta.allure.Allure;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.netology.api.PurchaseApi;
+import ru.netology.data.DataHelper;
+import ru.netology.data.DbResetExtension;
+import ru.netology.data.PurchaseWindow;
+import ru.netology.data.ResourceLocks;
+import ru.netology.data.SQLHelper;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ResourceLock(ResourceLocks.PURCHASE_ROWS)
+@ExtendWith(DbResetExtension.class)
+public class PurchaseApiTest {
+
+    private static DataHelper.CardInfo validCard(String cardNumber) {
+        var monthAndYear = DataHelper.getValidMonthAndYear();
+        return new DataHelper.CardInfo(cardNumber, monthAndYear.getCardMonth(), monthAndYear.getCardYear(),
+                DataHelper.getValidCardHolderName(), DataHelper.getRandomCardCode());
+    }
+
+    // the skew-widened window also sees the previous test's purchase, so the rows are counted before the
+    // request and again after it; the class lock keeps other purchases out of the window meanwhile
+    private static void assertNoNewPurchaseRows(PurchaseWindow window, Map<String, Long> before) {
+        assertEquals(before, SQLHelper.countRows(window));
+    }
+
+    static Stream<Arguments> invalidCards() {
+        var monthAndYear = DataHelper.getValidMonthAndYear();
+        var month = monthAndYear.getCardMonth();
+        var year = monthAndYear.getCardYear();
+        var holder = DataHelper.getValidCardHolderName();
+        var cvc = DataHelper.getRandomCardCode();
+        var approved = DataHelper.approvedCardNumber();
+        var expired = DataHelper.getInvalidCardWithPreviousYears();
+        var farFuture = DataHelper.getInvalidCardWithFutureYears();
+        return Stream.of(
+                Arguments.of("без номера карты", new DataHelper.CardInfo("", month, year, holder, cvc)),
+                Arguments.of("15-значный номер карты", new DataHelper.CardInfo(DataHelper.getInvalidCardNumberLessThan16(), month, year, holder, cvc)),
+                Arguments.of("без месяца", new DataHelper.CardInfo(approved, "", year, holder, cvc)),
+                Arguments.of("без года", new DataHelper.CardInfo(approved, month, "", holder, cvc)),
+                Arguments.of("истекший год", new DataHelper.CardInfo(approved, expired.getCardMonth(), expired.getCardYear(), holder, cvc)),
+                Arguments.of("год больше 5 лет", new DataHelper.CardInfo(approved, farFuture.getCardMonth(), farFuture.getCardYear(), holder, cvc)),
+                Arguments.of("без владельца", new DataHelper.CardInfo(approved, month, year, "", cvc)),
+                Arguments.of("цифры в поле владелец", new DataHelper.CardInfo(approved, month, year, DataHelper.getInvalidCardHolderNameNumber(), cvc)),
+                Arguments.of("спецсимволы в поле владелец", new DataHelper.CardInfo(approved, month, year, DataHelper.getInvalidCardHolderNameSpecSimbol(), cvc)),
+                Arguments.of("2-значный CVC/CVV", new DataHelper.CardInfo(approved, month, year, holder, DataHelper.getInvalidCardCode())),
+                Arguments.of("без CVC/CVV", new DataHelper.CardInfo(approved, month, year, holder, ""))
+        );
+    }
+
+    @DisplayName("API: покупка в кредит по карте со статусом APPROVED")
+    @Test
+    void creditApprovedByApi() {
+        var cardInfo = validCard(DataHelper.approvedCardNumber());
+        var window = PurchaseWindow.open();
+        var result = Allure.step("Отправляем заявку на кредит", () -> PurchaseApi.credit(cardInfo));
+        var creditOrder = SQLHelper.getCreditWithOrder(window.close());
+
+        assertAll(
+                () -> assertEquals(200, result.getStatusCode()),
+                () -> assertEquals("APPROVED", result.getStatus()),
+                () -> assertEquals("APPROVED", creditOrder.getStatus()),
+                () -> assertEquals(creditOrder.getBank_id(), creditOrder.getOrder_payment_id()));
+    }
+
+    @DisplayName("API: отклонение покупки в кредит по карте со статусом DECLINED")
+    @Test
+    void creditDeclinedByApi() {
+        var cardInfo = validCard(DataHelper.declinedCardNumber());
+        var window = PurchaseWindow.open();
+        var result = Allure.step("Отправляем заявку на кредит", () -> PurchaseApi.credit(cardInfo));
+        var creditOrder = SQLHelper.getCreditWithOrder(window.close());
+
+        assertAll(
+                () -> assertEquals(200, result.getStatusCode()),
+                () -> assertEquals("DECLINED", result.getStatus()),
+                () -> assertEquals("DECLINED", creditOrder.getStatus()),
+                () -> assertNotEquals(creditOrder.getBank_id(), creditOrder.getOrder_payment_id()));
+    }
+
+    @DisplayName("API: оплата картой со статусом APPROVED")
+    @Test
+    void payApprovedByApi() {
+        var cardInfo = validCard(DataHelper.approvedCardNumber());
+        var window = PurchaseWindow.open();
+        var result = Allure.step("Отправляем оплату", () -> PurchaseApi.pay(cardInfo));
+        var paymentOrder = SQLHelper.getPaymentWithOrder(window.close());
+
+        assertAll(
+                () -> assertEquals(200, result.getStatusCode()),
+                () -> assertEquals("APPROVED", result.getStatus()),
+                () -> assertEquals("APPROVED", paymentOrder.getStatus()),
+                () -> assertEquals(paymentOrder.getTransaction_id(), paymentOrder.getOrder_payment_id()));
+    }
+
+    @DisplayName("API: отклонение оплаты картой со статусом DECLINED")
+    @Test
+    void payDeclinedByApi() {
+        var cardInfo = validCard(DataHelper.declinedCardNumber());
+        var window = PurchaseWindow.open();
+        var result = Allure.step("Отправляем оплату", () -> PurchaseApi.pay(cardInfo));
+        var paymentOrder = SQLHelper.getPaymentWithOrder(window.close());
+
+        assertAll(
+                () -> assertEquals(200, result.getStatusCode()),
+                () -> assertEquals("DECLINED", result.getStatus()),
+                () -> assertEquals("DECLINED", paymentOrder.getStatus()),
+                () -> assertNotEquals(paymentOrder.getTransaction_id(), paymentOrder.getOrder_payment_id()));
+    }
+
+    @DisplayName("API: отклонение покупки в кредит по недействительному номеру карты")
+    @Test
+    void creditWithUnknownCardByApi() {
+        var cardInfo = validCard(DataHelper.getRandomCardNumber());
+        var window = PurchaseWindow.open();
+        var before = SQLHelper.countRows(window);
+        var result = Allure.step("Отправляем заявку на кредит", () -> PurchaseApi.credit(cardInfo));
+
+        assertAll(
+                () -> assertNotEquals(200, result.getStatusCode()),
+                () -> assertNoNewPurchaseRows(window, before));
+    }
+
+    @DisplayName("API: отклонение оплаты по недействительному номеру карты")
+    @Test
+    void payWithUnknownCardByApi() {
+        var cardInfo = validCard(DataHelper.getRandomCardNumber());
+        var window = PurchaseWindow.open();
+        var before = SQLHelper.countRows(window);
+        var result = Allure.step("Отправляем оплату", () -> PurchaseApi.pay(cardInfo));
+
+        assertAll(
+                () -> assertNotEquals(200, result.getStatusCode()),
+                () -> assertNoNewPurchaseRows(window, before));
+    }
+
+    @DisplayName("API: отклонение невалидных данных карты")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("invalidCards")
+    void invalidCardRejectedByApi(String caseName, DataHelper.CardInfo cardInfo) {
+        var window = PurchaseWindow.open();
+        var before = SQLHelper.countRows(window);
+        var creditResult = Allure.step("Отправляем заявку на кредит", () -> PurchaseApi.credit(cardInfo));
+        var payResult = Allure.step("Отправляем оплату", () -> PurchaseApi.pay(cardInfo));
+
+        assertAll(
+                () -> assertNotEquals(200, creditResult.getStatusCode()),
+                () -> assertNotEquals(200, payResult.getStatusCode()),
+                () -> assertNoNewPurchaseRows(window, before));
+    }
+}
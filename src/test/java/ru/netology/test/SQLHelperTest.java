@@ -0,0 +1,140 @@
+package ru.netology.test;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.netology.data.DbCheckpoint;
+import ru.netology.data.PurchaseWindow;
+import ru.netology.data.QueryAdvisor;
+import ru.netology.data.SQLHelper;
+
+import java.sql.DriverManager;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("embedded-db")
+public class SQLHelperTest {
+
+    @SneakyThrows
+    private static String insertCredit(String status, Instant created, boolean withOrder) {
+        var bankId = UUID.randomUUID().toString();
+        try (var conn = DriverManager.getConnection(System.getProperty("spring.datasource.url"),
+                System.getProperty("spring.datasource.username"), System.getProperty("spring.datasource.password"));
+             var credit = conn.prepareStatement("INSERT INTO credit_request_entity VALUES (?, ?, ?, ?)");
+             var order = conn.prepareStatement("INSERT INTO order_entity VALUES (?, ?, NULL, ?)")) {
+            credit.setString(1, UUID.randomUUID().toString());
+            credit.setString(2, bankId);
+            credit.setTimestamp(3, Timestamp.from(created));
+            credit.setString(4, status);
+            credit.executeUpdate();
+            if (withOrder) {
+                order.setString(1, UUID.randomUUID().toString());
+                order.setTimestamp(2, Timestamp.from(created));
+                order.setString(3, bankId);
+                order.executeUpdate();
+            }
+        }
+        return bankId;
+    }
+
+    // the in-memory database outlives the test, so the indexes created by the advisor are dropped again
+    @SneakyThrows
+    private static void dropAdvisedIndexes() {
+        try (var conn = DriverManager.getConnection(System.getProperty("spring.datasource.url"),
+                System.getProperty("spring.datasource.username"), System.getProperty("spring.datasource.password"));
+             var indexes = conn.prepareStatement("SELECT index_name FROM information_schema.indexes "
+                     + "WHERE table_schema = SCHEMA() AND index_name LIKE 'idx\\_%'");
+             var names = indexes.executeQuery();
+             var drop = conn.createStatement()) {
+            while (names.next()) {
+                drop.executeUpdate("DROP INDEX IF EXISTS " + names.getString(1));
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        SQLHelper.cleanDatabase();
+    }
+
+    @DisplayName("Заявка на кредит находится вместе с заказом по окну покупки")
+    @Test
+    void findsCreditWithOrderInWindow() {
+        var started = Instant.now();
+        insertCredit("DECLINED", started.minusSeconds(60), false);
+        var window = PurchaseWindow.open();
+        var bankId = insertCredit("APPROVED", Instant.now(), true);
+
+        var creditOrder = SQLHelper.getCreditWithOrder(window.close());
+
+        assertEquals("APPROVED", creditOrder.getStatus());
+        assertEquals(bankId, creditOrder.getBank_id());
+        assertEquals(bankId, creditOrder.getOrder_payment_id());
+        assertEquals(creditOrder.getBank_id(), SQLHelper.getCreditWithOrderByBankId(bankId).getOrder_payment_id());
+        assertEquals("APPROVED", SQLHelper.getInfoFromCreditPayment().getStatus());
+    }
+
+    @DisplayName("Отклонённая заявка на кредит не попадает в таблицу заказов")
+    @Test
+    void declinedCreditHasNoOrder() {
+        var bankId = insertCredit("DECLINED", Instant.now(), false);
+
+        var creditOrder = SQLHelper.getCreditWithOrderByBankId(bankId);
+
+        assertEquals("DECLINED", creditOrder.getStatus());
+        assertNull(creditOrder.getOrder_id());
+    }
+
+    @DisplayName("Сброс БД возвращает таблицы к состоянию контрольной точки")
+    @ParameterizedTest
+    @EnumSource(DbCheckpoint.Strategy.class)
+    void resetRestoresCheckpoint(DbCheckpoint.Strategy strategy) {
+        var kept = insertCredit("APPROVED", Instant.now().minusSeconds(60), true);
+        var checkpoint = DbCheckpoint.take(strategy);
+        try {
+            var added = insertCredit("DECLINED", Instant.now(), false);
+
+            checkpoint.reset();
+
+            assertNull(SQLHelper.getCreditWithOrderByBankId(added));
+            if (strategy == DbCheckpoint.Strategy.TRUNCATE) {
+                assertNull(SQLHelper.getCreditWithOrderByBankId(kept));
+            } else {
+                assertEquals(kept, SQLHelper.getCreditWithOrderByBankId(kept).getOrder_payment_id());
+            }
+        } finally {
+            checkpoint.release();
+        }
+    }
+
+    @DisplayName("Советник находит полный просмотр таблицы заказов и устраняет его индексом")
+    @Test
+    void advisesIndexForOrderJoin() {
+        for (int i = 0; i < 50; i++) {
+            insertCredit(i % 2 == 0 ? "APPROVED" : "DECLINED", Instant.now().minusSeconds(i), i % 2 == 0);
+        }
+
+        try {
+            var report = QueryAdvisor.advise(true);
+            var byId = report.getQueries().stream()
+                    .filter(query -> query.getName().equals("getCreditWithOrderById"))
+                    .findFirst()
+                    .orElseThrow();
+
+            assertTrue(byId.getBefore().getFullScans().contains("order_entity"), byId.getBefore().getPlan());
+            assertTrue(byId.getSuggestedIndexes().contains("CREATE INDEX idx_order_entity_payment_id ON order_entity (payment_id)"),
+                    byId.getSuggestedIndexes().toString());
+            assertFalse(byId.getAfter().getFullScans().contains("order_entity"), byId.getAfter().getPlan());
+            assertEquals(3, report.getTables().size());
+        } finally {
+            dropAdvisedIndexes();
+        }
+    }
+}
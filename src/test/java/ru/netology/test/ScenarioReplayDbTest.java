@@ -0,0 +1,131 @@
+package ru.netology.test;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.netology.Options;
+import ru.netology.data.DataHelper;
+import ru.netology.data.SQLHelper;
+import ru.netology.replay.Scenario;
+import ru.netology.replay.ScenarioExecutor;
+import ru.netology.replay.ScenarioFile;
+import ru.netology.replay.ScenarioReplay;
+
+import java.sql.DriverManager;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("embedded-db")
+public class ScenarioReplayDbTest {
+
+    // answers and writes the rows like the shop would for the two test card numbers; the scenario on
+    // orderlessLine gets its credit row but no order
+    private static class RowWritingExecutor implements ScenarioExecutor {
+        private final int orderlessLine;
+
+        RowWritingExecutor(int orderlessLine) {
+            this.orderlessLine = orderlessLine;
+        }
+
+        @Override
+        public String mode() {
+            return "rows";
+        }
+
+        @Override
+        public void start(Options options) {
+        }
+
+        @Override
+        public CompletableFuture<Result> execute(Scenario scenario) {
+            return CompletableFuture.supplyAsync(() -> {
+                var number = scenario.getCard().getNumber();
+                var status = number.equals(DataHelper.approvedCardNumber()) ? "APPROVED"
+                        : number.equals(DataHelper.declinedCardNumber()) ? "DECLINED" : "VALIDATION";
+                if (!status.equals("VALIDATION")) {
+                    insertCredit(status, status.equals("APPROVED") && scenario.getLine() != orderlessLine);
+                }
+                return new Result(status, null);
+            });
+        }
+    }
+
+    @SneakyThrows
+    private static void insertCredit(String status, boolean withOrder) {
+        var bankId = UUID.randomUUID().toString();
+        var created = Timestamp.from(Instant.now());
+        try (var conn = DriverManager.getConnection(System.getProperty("spring.datasource.url"),
+                System.getProperty("spring.datasource.username"), System.getProperty("spring.datasource.password"));
+             var credit = conn.prepareStatement("INSERT INTO credit_request_entity VALUES (?, ?, ?, ?)");
+             var order = conn.prepareStatement("INSERT INTO order_entity VALUES (?, ?, NULL, ?)")) {
+            credit.setString(1, UUID.randomUUID().toString());
+            credit.setString(2, bankId);
+            credit.setTimestamp(3, created);
+            credit.setString(4, status);
+            credit.executeUpdate();
+            if (withOrder) {
+                order.setString(1, UUID.randomUUID().toString());
+                order.setTimestamp(2, created);
+                order.setString(3, bankId);
+                order.executeUpdate();
+            }
+        }
+    }
+
+    private static List<Scenario> scenarios(int count) {
+        var lines = new ArrayList<String>();
+        lines.add("endpoint,number,month,year,holder,cvc,expected_status");
+        for (int i = 0; i < count; i++) {
+            var number = i % 3 == 0 ? DataHelper.approvedCardNumber()
+                    : i % 3 == 1 ? DataHelper.declinedCardNumber() : DataHelper.getInvalidCardNumberLessThan16();
+            var status = i % 3 == 0 ? "APPROVED" : i % 3 == 1 ? "DECLINED" : "VALIDATION";
+            lines.add("credit," + number + ",12,+2,Ivan Ivanov,123," + status);
+        }
+        return ScenarioFile.parse(lines);
+    }
+
+    private static ScenarioReplay.Settings settings() {
+        return ScenarioReplay.Settings.from(Options.parse(new String[]{
+                "--chunk", "10", "--concurrency", "4", "--verify-timeout-ms", "500"}));
+    }
+
+    @BeforeEach
+    void setUp() {
+        SQLHelper.cleanDatabase();
+    }
+
+    @DisplayName("Каждая часть прогона сверяется с записями в БД")
+    @Test
+    void verifiesEveryChunkAgainstDatabase() {
+        var summary = new ScenarioReplay(new RowWritingExecutor(-1), settings()).run(scenarios(30));
+
+        assertEquals(3, summary.getChunks());
+        assertEquals(0, summary.getFailedChunks(), summary.getChunkFailures().toString());
+        assertTrue(summary.passed());
+    }
+
+    @DisplayName("Одобренная покупка без заказа отмечает свою часть прогона как несовпавшую")
+    @Test
+    void reportsChunkWithApprovedPurchaseWithoutOrder() {
+        // line 14 holds the 13th scenario, an approved one in the second chunk (lines 12-21)
+        var summary = new ScenarioReplay(new RowWritingExecutor(14), settings()).run(scenarios(30));
+
+        assertEquals(1, summary.getFailedChunks());
+        var failure = summary.getChunkFailures().get(0);
+        assertEquals(1, failure.getChunk());
+        assertEquals(12, failure.getFirstLine());
+        assertEquals(21, failure.getLastLine());
+        assertEquals(1L, failure.getActual().get("credit_request_entity APPROVED without order"));
+        assertNull(failure.getError());
+        assertEquals(0, summary.getFailedScenarios());
+        assertFalse(summary.passed());
+    }
+}
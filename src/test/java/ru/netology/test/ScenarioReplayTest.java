@@ -0,0 +1,111 @@
+package ru.netology.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.netology.Options;
+import ru.netology.api.ShopClient;
+import ru.netology.data.DataHelper;
+import ru.netology.replay.Scenario;
+import ru.netology.replay.ScenarioExecutor;
+import ru.netology.replay.ScenarioFile;
+import ru.netology.replay.ScenarioReplay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScenarioReplayTest {
+
+    // answers like the shop would for the two test card numbers, everything else fails validation
+    private static class FakeExecutor implements ScenarioExecutor {
+        @Override
+        public String mode() {
+            return "fake";
+        }
+
+        @Override
+        public void start(Options options) {
+        }
+
+        @Override
+        public CompletableFuture<Result> execute(Scenario scenario) {
+            return CompletableFuture.supplyAsync(() -> {
+                var number = scenario.getCard().getNumber();
+                if (number.equals(DataHelper.approvedCardNumber())) {
+                    return new Result("APPROVED", null);
+                }
+                return new Result(number.equals(DataHelper.declinedCardNumber()) ? "DECLINED" : "VALIDATION", null);
+            });
+        }
+    }
+
+    private static class CreditOnlyExecutor extends FakeExecutor {
+        @Override
+        public boolean supports(Scenario scenario) {
+            return scenario.getEndpoint() == ShopClient.Endpoint.CREDIT;
+        }
+    }
+
+    @DisplayName("Сценарии читаются из CSV с заголовком и кавычками")
+    @Test
+    void parsesScenarioFile() {
+        var scenarios = ScenarioFile.parse(List.of(
+                "endpoint,number,month,year,holder,cvc,expected_status,expected_notification",
+                "credit,1111 2222 3333 4444,12,29,Ivan Ivanov,123,APPROVED,Операция одобрена Банком.",
+                "# комментарий",
+                "",
+                "pay,5555 6666 7777 8888,06,28,\"Ivanov, \"\"Ivan\"\"\",456,declined,"));
+
+        assertEquals(2, scenarios.size());
+        assertEquals(ShopClient.Endpoint.CREDIT, scenarios.get(0).getEndpoint());
+        assertEquals("Операция одобрена Банком.", scenarios.get(0).getExpectedNotification());
+        assertEquals(5, scenarios.get(1).getLine());
+        assertEquals("Ivanov, \"Ivan\"", scenarios.get(1).getCard().getHolder());
+        assertEquals(ShopClient.Outcome.DECLINED, scenarios.get(1).getExpectedStatus());
+        assertThrows(IllegalArgumentException.class, () -> ScenarioFile.parse(List.of(
+                "endpoint,number,month,year,holder,cvc,expected_status",
+                "refund,1111 2222 3333 4444,12,29,Ivan Ivanov,123,APPROVED")));
+    }
+
+    @DisplayName("Прогон сценариев по частям собирает несовпадения статуса в сводку")
+    @Test
+    void replaysInChunksAndReportsMismatches() {
+        var lines = new ArrayList<String>();
+        lines.add("endpoint,number,month,year,holder,cvc,expected_status,expected_notification");
+        for (int i = 0; i < 95; i++) {
+            var number = i % 2 == 0 ? DataHelper.approvedCardNumber() : DataHelper.declinedCardNumber();
+            lines.add("credit," + number + ",12,29,Ivan Ivanov,123," + (i % 2 == 0 ? "APPROVED" : "DECLINED") + ",");
+        }
+        lines.add("pay," + DataHelper.declinedCardNumber() + ",12,29,Ivan Ivanov,123,APPROVED,");
+        var settings = ScenarioReplay.Settings.from(Options.parse(new String[]{"--chunk", "10", "--concurrency", "8", "--no-verify"}));
+
+        var summary = new ScenarioReplay(new FakeExecutor(), settings).run(ScenarioFile.parse(lines));
+
+        assertEquals(96, summary.getScenarios());
+        assertEquals(10, summary.getChunks());
+        assertEquals(96, summary.getLatency().getCount());
+        assertEquals(1, summary.getFailedScenarios());
+        assertEquals(97, summary.getFailures().get(0).getLine());
+        assertEquals("DECLINED", summary.getFailures().get(0).getActualStatus());
+        assertEquals(48L, summary.getOutcomes().get("APPROVED -> APPROVED"));
+        assertFalse(summary.passed());
+    }
+
+    @DisplayName("Сценарии, которые исполнитель не поддерживает, пропускаются, а не считаются ошибками")
+    @Test
+    void skipsUnsupportedScenarios() {
+        var scenarios = ScenarioFile.parse(List.of(
+                "endpoint,number,month,year,holder,cvc,expected_status",
+                "credit," + DataHelper.approvedCardNumber() + ",12,29,Ivan Ivanov,123,APPROVED",
+                "pay," + DataHelper.approvedCardNumber() + ",12,29,Ivan Ivanov,123,APPROVED"));
+        var settings = ScenarioReplay.Settings.from(Options.parse(new String[]{"--no-verify"}));
+
+        var summary = new ScenarioReplay(new CreditOnlyExecutor(), settings).run(scenarios);
+
+        assertEquals(1, summary.getScenarios());
+        assertEquals(1, summary.getSkippedScenarios());
+        assertTrue(summary.passed());
+    }
+}